@@ -0,0 +1,103 @@
+package com.hospital.bench;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.ColumnarAppointmentStore;
+import com.hospital.service.FileManager;
+import com.hospital.service.RecordFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Retained heap and doctor-worklist scan time of the columnar appointment store vs. Appointment objects
+// (a plain list, and the indexed AppointmentRepository used by the facade).
+// Run with a heap big enough for the object version, e.g. -Xmx4g for 1M appointments.
+// Usage: java -Xmx4g -cp out:bench-out com.hospital.bench.AppointmentStoreBenchmark [appointments]
+public class AppointmentStoreBenchmark {
+    public static void main(String[] args) throws IOException {
+        int appointments = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int doctors = Math.max(1, appointments / 1000);
+        Path dir = Files.createTempDirectory("hospital-columnar");
+        new DatasetGenerator(42L).generate(dir, appointments / 10, doctors, appointments);
+        System.setProperty("hospital.data.dir", dir.toString());
+        System.setProperty("hospital.console.events", "false");
+        FileManager fileManager = FileManager.getInstance();
+        System.out.println("Data set: " + appointments + " appointments, " + doctors + " doctors in " + dir);
+
+        long[] objectResults = measureObjects(fileManager, doctors); // Objects become garbage when it returns
+
+        long baseline = Harness.usedHeap();
+        ColumnarAppointmentStore store = new ColumnarAppointmentStore();
+        try (Stream<Appointment> stream = fileManager.streamAppointments(RecordFilter.all())) {
+            stream.forEach(store::add); // Objects are dropped as soon as their row is written
+        }
+        long columnarBytes = Harness.usedHeap() - baseline;
+        long columnarScanNanos = time(() -> {
+            int found = 0;
+            for (int d = 0; d < doctors; d++) {
+                found += store.findByDoctor(DatasetGenerator.doctorId(d), AppointmentStatus.PENDING_APPROVAL).size();
+            }
+            return found;
+        });
+
+        System.out.printf("%-22s %14s %12s %20s%n", "store", "retained MB", "bytes/row", "pending scan ms");
+        print("List<Appointment>", objectResults[0], appointments, objectResults[1]);
+        print("AppointmentRepository", objectResults[2], appointments, objectResults[3]);
+        print("ColumnarStore", columnarBytes, appointments, columnarScanNanos);
+        System.out.println("(scan = PENDING_APPROVAL worklist of every doctor; the repository answers from its status index)");
+        System.out.println("Rows in columnar store: " + store.size() + ", by status: " + store.countByStatus());
+    }
+
+    // {list bytes, list scan ns, repository bytes (list included), repository scan ns}
+    private static long[] measureObjects(FileManager fileManager, int doctors) {
+        long baseline = Harness.usedHeap();
+        List<Appointment> objects = new ArrayList<>();
+        try (Stream<Appointment> stream = fileManager.streamAppointments(RecordFilter.all())) {
+            stream.forEach(objects::add);
+        }
+        long objectBytes = Harness.usedHeap() - baseline;
+        long objectScanNanos = time(() -> {
+            int found = 0;
+            for (int d = 0; d < doctors; d++) {
+                String doctorId = DatasetGenerator.doctorId(d);
+                for (Appointment appointment : objects) {
+                    if (appointment.getDoctorId().equals(doctorId) && appointment.getStatus() == AppointmentStatus.PENDING_APPROVAL) found++;
+                }
+            }
+            return found;
+        });
+
+        AppointmentRepository repository = new AppointmentRepository(objects);
+        long repositoryBytes = Harness.usedHeap() - baseline;
+        long repositoryScanNanos = time(() -> {
+            int found = 0;
+            for (int d = 0; d < doctors; d++) {
+                found += repository.findByDoctor(DatasetGenerator.doctorId(d), AppointmentStatus.PENDING_APPROVAL).size();
+            }
+            return found;
+        });
+        return new long[] {objectBytes, objectScanNanos, repositoryBytes, repositoryScanNanos};
+    }
+
+    private interface Scan {
+        int run();
+    }
+
+    private static long time(Scan scan) {
+        scan.run(); // Warm-up
+        long start = System.nanoTime();
+        int found = scan.run();
+        long elapsed = System.nanoTime() - start;
+        if (found < 0) System.out.println(found); // Keep the result alive
+        return elapsed;
+    }
+
+    private static void print(String name, long bytes, int rows, long scanNanos) {
+        System.out.printf("%-22s %14.1f %12d %20.1f%n", name, bytes / 1e6, bytes / rows, scanNanos / 1e6);
+    }
+}
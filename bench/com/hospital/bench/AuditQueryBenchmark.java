@@ -0,0 +1,130 @@
+package com.hospital.bench;
+
+import com.hospital.audit.AuditStore;
+import com.hospital.util.RecordFields;
+import com.hospital.util.Timestamps;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Audit trail queries: load time and heap of an AuditStore over a generated history, then latency of typical
+// investigations, compared with reading the whole log (what answering them from activity_log.txt took before).
+// The history spans 90 days: logins and logouts, registrations, and appointments that are scheduled and then
+// accepted, rejected or cancelled, by 50 staff and 500 doctors for 100,000 patients.
+// Usage: java -Xmx4g -cp out:bench-out com.hospital.bench.AuditQueryBenchmark [records] [queriesPerType]
+public class AuditQueryBenchmark {
+    private static final int STAFF = 50;
+    private static final int DOCTORS = 500;
+    private static final int PATIENTS = 100_000;
+    private static final int DAYS = 90;
+    private static final int PAGE = 100;
+    private static final int NAME_WIDTH = 40;
+    private static final LocalDateTime END = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        Path dir = Files.createTempDirectory("audit-bench");
+        Path file = dir.resolve("audit_log.txt");
+        try {
+            generate(file, count);
+            long baseline = Harness.usedHeap();
+            long start = System.nanoTime();
+            AuditStore store = new AuditStore(file);
+            long loadNanos = System.nanoTime() - start;
+            long storeBytes = Harness.usedHeap() - baseline;
+            System.out.printf(Locale.ROOT, "%d records (%.0f MB): loaded and indexed in %.0f ms, %.1f MB (%d bytes/record)%n%n",
+                    store.size(), Files.size(file) / 1e6, loadNanos / 1e6, storeBytes / 1e6, storeBytes / Math.max(1, store.size()));
+
+            Harness.Latencies.printHeader(NAME_WIDTH);
+            run("cancelled by a staff member, last week", queries, store, i -> new Object[]{"APPOINTMENT_CANCELLED", staff(i), null, END.minusDays(7), END});
+            run("everything about a patient", queries, store, i -> new Object[]{null, null, patient(i), null, null});
+            run("a doctor's accepts, one day", queries, store, i -> new Object[]{"APPOINTMENT_ACCEPTED", null, doctor(i), day(i), day(i).plusDays(1)});
+            run("all logins, one hour", queries, store, i -> new Object[]{"LOGIN_SUCCESS", null, null, day(i), day(i).plusHours(1)});
+            run("everything, one minute", queries, store, i -> new Object[]{null, null, null, day(i), day(i).plusMinutes(1)});
+
+            // The alternative without indexes: read every line and test it
+            Harness.latencies(3, STAFF, 7, AuditQueryBenchmark::staff, actor -> {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    return (int) reader.lines().filter(line -> line.contains(",APPOINTMENT_CANCELLED," + actor + ",")
+                            && Timestamps.parse(line.substring(0, line.indexOf(','))).isAfter(END.minusDays(7))).count();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).print("linear scan of the log (first query)", NAME_WIDTH);
+        } finally {
+            for (Path path : Files.list(dir).collect(Collectors.toList())) Files.delete(path);
+            Files.delete(dir);
+        }
+    }
+
+    // Writes the history straight in the audit log format, oldest first, as the store would have.
+    private static void generate(Path file, int count) throws IOException {
+        Random random = new Random(42);
+        long spanMillis = DAYS * 24L * 3600 * 1000;
+        LocalDateTime first = END.minusDays(DAYS);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                LocalDateTime time = first.plusNanos(spanMillis * i / count * 1_000_000);
+                int kind = random.nextInt(100);
+                String staff = staff(random.nextInt(STAFF));
+                String patient = patient(random.nextInt(PATIENTS));
+                int doctorIndex = random.nextInt(DOCTORS);
+                String doctor = doctor(doctorIndex);
+                String appointment = DatasetGenerator.appointmentId(random.nextInt(count));
+                String line;
+                if (kind < 30) {
+                    line = RecordFields.join(Timestamps.format(time), kind < 20 ? "LOGIN_SUCCESS" : "LOGOUT", staff, "0", "User: " + staff);
+                } else if (kind < 35) {
+                    line = RecordFields.join(Timestamps.format(time), "PATIENT_REGISTERED", staff, "1", patient,
+                            "ID: " + patient + ", Name: Some Body, Contact: 9000000000 by " + staff);
+                } else {
+                    String type = kind < 60 ? "APPOINTMENT_SCHEDULED_PENDING" : kind < 80 ? "APPOINTMENT_ACCEPTED"
+                            : kind < 88 ? "APPOINTMENT_REJECTED" : "APPOINTMENT_CANCELLED";
+                    String actor = kind >= 60 && kind < 88 ? "doctor" + doctorIndex : staff;
+                    line = RecordFields.join(Timestamps.format(time), type, actor, "3", appointment, patient, doctor,
+                            "ID: " + appointment + ", Old Status: PENDING_APPROVAL, New Status: ... by " + actor);
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    // queryFor maps a random number to {event type, actor, entity ID, from, to}, null = any
+    private static void run(String name, int queries, AuditStore store, IntFunction<Object[]> queryFor) {
+        Harness.latencies(queries, 1 << 20, name.hashCode(), queryFor, query -> page(store, query)).print(name, NAME_WIDTH);
+    }
+
+    // First page of matches, read in full as a client would see it
+    private static int page(AuditStore store, Object[] query) {
+        return store.queryPage((String) query[0], (String) query[1], (String) query[2], (LocalDateTime) query[3],
+                (LocalDateTime) query[4], null, PAGE).getItems().size();
+    }
+
+    private static String staff(int index) {
+        return "staff" + index % STAFF;
+    }
+
+    private static String patient(int index) {
+        return DatasetGenerator.patientId(index % PATIENTS);
+    }
+
+    private static String doctor(int index) {
+        return DatasetGenerator.doctorId(index % DOCTORS);
+    }
+
+    private static LocalDateTime day(int index) {
+        return END.minusDays(1 + index % (DAYS - 1)).plusMinutes(index % 1440);
+    }
+}
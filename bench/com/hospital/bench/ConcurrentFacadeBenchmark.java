@@ -0,0 +1,104 @@
+package com.hospital.bench;
+
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.core.Session;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.observer.EventManager;
+import com.hospital.repository.AppointmentRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Multi-session throughput: each worker thread owns a doctor and a front-desk session and repeatedly
+// schedules an appointment for its doctor, reads the doctor's worklist and accepts the appointment.
+// Workers touch different doctors, so with striped locking throughput should grow with the thread count.
+// Usage: java -cp out:bench-out com.hospital.bench.ConcurrentFacadeBenchmark [secondsPerRun] [threadCounts...]
+public class ConcurrentFacadeBenchmark {
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int[] threadCounts = {1, 2, 4, 8};
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) threadCounts[i - 1] = Integer.parseInt(args[i]);
+        }
+        useScratchDataDirectory();
+
+        HospitalManagementFacade facade = HospitalManagementFacade.create(new EventManager());
+        Session admin = facade.openSession("staff", "staff123");
+        int maxThreads = 0;
+        for (int count : threadCounts) maxThreads = Math.max(maxThreads, count);
+        List<Doctor> doctors = new ArrayList<>();
+        List<Session> doctorSessions = new ArrayList<>();
+        for (int i = 0; i < maxThreads; i++) {
+            Doctor doctor = facade.addNewDoctor(admin, "Bench Doctor " + i, "555-0100", "General", "OPD");
+            doctors.add(doctor);
+            String username = ("Bench Doctor " + i).toLowerCase().replaceAll("\\s+", "") + doctor.getId().substring(4, 7);
+            doctorSessions.add(facade.openSession(username, "doctor" + doctor.getId().substring(4, 7)));
+        }
+        Patient patient = facade.registerNewPatient(admin, "Bench Patient", "555-0199", 40, "F", "Bench Street");
+        // Each doctor's next free slot, carried across rounds so bookings never overlap
+        LocalDateTime firstSlot = LocalDateTime.now().plusDays(1);
+        List<AtomicLong> bookedSlots = new ArrayList<>();
+        for (int i = 0; i < maxThreads; i++) bookedSlots.add(new AtomicLong());
+        long slotMinutes = AppointmentRepository.getSlotDuration().toMinutes();
+
+        System.out.printf("%-8s %14s %14s%n", "threads", "ops/s", "ops/s/thread");
+        for (int threads : threadCounts) {
+            AtomicLong operations = new AtomicLong();
+            CountDownLatch start = new CountDownLatch(1);
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Doctor doctor = doctors.get(t);
+                Session doctorSession = doctorSessions.get(t);
+                Session frontDesk = facade.openSession("staff", "staff123");
+                AtomicLong slots = bookedSlots.get(t);
+                Thread worker = new Thread(() -> {
+                    awaitQuietly(start);
+                    long done = 0;
+                    while (System.nanoTime() < deadline) {
+                        LocalDateTime slot = firstSlot.plusMinutes(slotMinutes * slots.incrementAndGet());
+                        Appointment appointment = facade.scheduleNewAppointment(frontDesk, patient.getId(), doctor.getId(), slot, "Bench visit");
+                        facade.getAppointmentsForDoctor(doctorSession, doctor.getId(), AppointmentStatus.PENDING_APPROVAL);
+                        facade.processAppointmentAction(doctorSession, appointment.getAppointmentId(), "ACCEPT");
+                        done += 3;
+                    }
+                    operations.addAndGet(done);
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) worker.join();
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+            double opsPerSecond = operations.get() / elapsed;
+            System.out.printf("%-8d %14.0f %14.0f%n", threads, opsPerSecond, opsPerSecond / threads);
+        }
+    }
+
+    // Keeps the benchmark away from the real data/ directory and turns off per-event console output.
+    static void useScratchDataDirectory() throws IOException {
+        Path dataDir = Files.createTempDirectory("hospital-bench");
+        System.setProperty("hospital.data.dir", dataDir.toString());
+        System.setProperty("hospital.console.events", "false");
+        System.out.println("Data directory: " + dataDir);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.hospital.bench;
+
+import com.hospital.model.*;
+import com.hospital.security.PasswordHasher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+// Deterministic data set writer: the same seed and sizes always produce the same records
+// (only the random password salts in users.txt differ between runs).
+// Writes patients.txt, doctors.txt, appointments.txt and users.txt (staff/staff123 plus doctorN/doc123 per doctor),
+// and the format.v2 marker.
+// Usage: java -cp out:bench-out com.hospital.bench.DatasetGenerator <dir> <appointments> [patients] [doctors] [seed]
+public class DatasetGenerator {
+    public static final String STAFF_PASSWORD = "staff123";
+    public static final String DOCTOR_PASSWORD = "doc123";
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Priya", "John", "Maria", "Wei", "Fatima", "Lucas", "Aisha", "Noah", "Sofia", "Ravi", "Emma"};
+    private static final String[] LAST_NAMES = {"Sharma", "Smith", "Garcia", "Chen", "Khan", "Silva", "Patel", "Brown", "Kim", "Nair", "Lopez", "Iyer"};
+    private static final String[] SPECIALIZATIONS = {"cardiology", "orthopedics", "pediatrics", "neurology", "dermatology", "general medicine"};
+    private static final String[] REASONS = {"Routine checkup", "Follow-up visit", "Chest pain", "Fever", "Vaccination", "Blood test review", "Back pain"};
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2023, 1, 2, 9, 0);
+    private static final LocalDateTime AS_OF = EPOCH.plusYears(2); // "Today" for statuses; fixed so output never depends on the clock
+
+    private final long seed;
+
+    public DatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args[0]);
+        int appointments = Integer.parseInt(args[1]);
+        int patients = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, appointments / 10);
+        int doctors = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, appointments / 1000);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        new DatasetGenerator(seed).generate(dir, patients, doctors, appointments);
+        System.out.println("Generated " + patients + " patients, " + doctors + " doctors, " + appointments + " appointments in " + dir);
+    }
+
+    public static String patientId(int index) { return String.format("PAT-%08X", index); }
+    public static String doctorId(int index) { return String.format("DOC-%08X", index); }
+    public static String appointmentId(int index) { return String.format("APP-%08X", index); }
+    public static String doctorUsername(int index) { return "doctor" + index; }
+
+    public void generate(Path dir, int patients, int doctors, int appointments) throws IOException {
+        Files.createDirectories(dir);
+        Random random = new Random(seed);
+        try (BufferedWriter out = writer(dir, "patients.txt")) {
+            for (int i = 0; i < patients; i++) {
+                Patient patient = new Patient(patientId(i), name(random), phone(random), 1 + random.nextInt(95),
+                        random.nextBoolean() ? "F" : "M", (1 + random.nextInt(999)) + " Main Road");
+                line(out, patient.toFileString());
+            }
+        }
+        try (BufferedWriter out = writer(dir, "doctors.txt")) {
+            for (int i = 0; i < doctors; i++) {
+                String specialization = SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)];
+                line(out, new Doctor(doctorId(i), "Dr. " + name(random), phone(random), specialization, specialization).toFileString());
+            }
+        }
+        try (BufferedWriter out = writer(dir, "appointments.txt")) {
+            for (int i = 0; i < appointments; i++) {
+                LocalDateTime slot = EPOCH.plusMinutes(15L * random.nextInt(4 * 24 * 365 * 4)); // ~4 years of 15-minute slots
+                Appointment appointment = new Appointment(appointmentId(i), patientId(random.nextInt(patients)), doctorId(random.nextInt(doctors)),
+                        slot, REASONS[random.nextInt(REASONS.length)], status(random, slot));
+                line(out, appointment.toFileString());
+            }
+        }
+        // Hashing is deliberately slow, so every doctor shares one hash of the same password
+        String staffHash = PasswordHasher.hash(STAFF_PASSWORD);
+        String doctorHash = PasswordHasher.hash(DOCTOR_PASSWORD);
+        try (BufferedWriter out = writer(dir, "users.txt")) {
+            line(out, new User("staff", staffHash, Role.STAFF).toFileString());
+            for (int i = 0; i < doctors; i++) {
+                line(out, new User(doctorUsername(i), doctorHash, Role.DOCTOR, doctorId(i)).toFileString());
+            }
+        }
+        Files.deleteIfExists(dir.resolve("appointments.journal"));
+        Files.write(dir.resolve("format.v2"), new byte[0]); // Current record format: no legacy upgrade scan on startup
+    }
+
+    // Roughly what a clinic's book looks like: past visits are settled (mostly accepted, some rejected or cancelled),
+    // and only future ones can still be waiting for the doctor. Over the whole ~4-year range (half past, half future)
+    // that is about 60% accepted, 15% pending, 10% rejected and 15% cancelled.
+    private static AppointmentStatus status(Random random, LocalDateTime slot) {
+        int roll = random.nextInt(100);
+        if (slot.isBefore(AS_OF)) {
+            if (roll < 75) return AppointmentStatus.ACCEPTED;
+            if (roll < 87) return AppointmentStatus.REJECTED;
+            return AppointmentStatus.CANCELLED_BY_STAFF;
+        }
+        if (roll < 30) return AppointmentStatus.PENDING_APPROVAL;
+        if (roll < 75) return AppointmentStatus.ACCEPTED;
+        if (roll < 83) return AppointmentStatus.REJECTED;
+        return AppointmentStatus.CANCELLED_BY_STAFF;
+    }
+
+    private static String name(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String phone(Random random) {
+        return String.format("9%09d", random.nextInt(1_000_000_000));
+    }
+
+    private static BufferedWriter writer(Path dir, String file) throws IOException {
+        return Files.newBufferedWriter(dir.resolve(file), StandardCharsets.UTF_8);
+    }
+
+    private static void line(BufferedWriter out, String line) throws IOException {
+        out.write(line);
+        out.newLine();
+    }
+}
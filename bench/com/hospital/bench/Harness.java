@@ -0,0 +1,161 @@
+package com.hospital.bench;
+
+import com.hospital.metrics.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+// Minimal JMH-style measurement loop, so the suite runs with nothing but the JDK.
+// A benchmark is called repeatedly for a fixed time per iteration; warm-up iterations let the JIT settle and are
+// discarded, and the measured iterations give the mean time per operation and its standard deviation.
+// Every result is fed to a blackhole so the JIT cannot drop the work.
+// For lookups whose latency spread matters, latencies() times single calls into a histogram instead.
+public class Harness {
+    private static volatile Object blackhole = new Object();
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+
+    public Harness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    public interface Benchmark {
+        Object run(long invocation) throws Exception; // The invocation counter helps spread lookups over the data
+    }
+
+    public Result measure(String name, int rows, Benchmark benchmark) throws Exception {
+        long invocation = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            invocation = iteration(benchmark, invocation, null);
+        }
+        double[] nanosPerOp = new double[measurementIterations];
+        long operations = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] iterationOps = new long[1];
+            long start = System.nanoTime();
+            invocation = iteration(benchmark, invocation, iterationOps);
+            nanosPerOp[i] = (System.nanoTime() - start) / (double) iterationOps[0];
+            operations += iterationOps[0];
+        }
+        return new Result(name, rows, nanosPerOp, operations);
+    }
+
+    private long iteration(Benchmark benchmark, long invocation, long[] operations) throws Exception {
+        long end = System.nanoTime() + iterationNanos;
+        long count = 0;
+        do { // At least one call, even when a single operation outlasts the iteration
+            consume(benchmark.run(invocation++));
+            count++;
+        } while (System.nanoTime() < end);
+        if (operations != null) operations[0] = count;
+        return invocation;
+    }
+
+    // Per-call latency: `calls` untimed warm-up calls, then `calls` timed ones. Each call's query is built (untimed)
+    // by queryFor from a random index below bound, drawn from a seeded generator; operation returns its result count.
+    public static <Q> Latencies latencies(int calls, int bound, long seed, IntFunction<Q> queryFor, ToIntFunction<Q> operation) {
+        Random pick = new Random(seed);
+        for (int i = 0; i < calls; i++) {
+            consume(operation.applyAsInt(queryFor.apply(pick.nextInt(bound))));
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        long results = 0;
+        for (int i = 0; i < calls; i++) {
+            Q query = queryFor.apply(pick.nextInt(bound));
+            long start = System.nanoTime();
+            results += operation.applyAsInt(query);
+            histogram.record(System.nanoTime() - start);
+        }
+        return new Latencies(histogram.snapshot(), results / (double) calls);
+    }
+
+    // Heap in use after a few collections; the difference across building a structure is roughly what it keeps.
+    public static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void consume(Object result) {
+        if (result == blackhole) {
+            throw new IllegalStateException("Blackhole leaked"); // Never true; the volatile read keeps the result alive
+        }
+    }
+
+    public static class Latencies {
+        private final LatencyHistogram.Snapshot snapshot;
+        private final double averageResults;
+
+        Latencies(LatencyHistogram.Snapshot snapshot, double averageResults) {
+            this.snapshot = snapshot;
+            this.averageResults = averageResults;
+        }
+
+        public static void printHeader(int nameWidth) {
+            System.out.printf("%-" + nameWidth + "s %10s %10s %10s %10s %12s%n", "query", "mean us", "p50 us", "p99 us", "max us", "avg results");
+        }
+
+        public void print(String name, int nameWidth) {
+            System.out.printf(Locale.ROOT, "%-" + nameWidth + "s %10.1f %10.1f %10.1f %10.1f %12.1f%n", name, snapshot.getMean() / 1e3,
+                    snapshot.getValueAtPercentile(50) / 1e3, snapshot.getValueAtPercentile(99) / 1e3, snapshot.getMax() / 1e3, averageResults);
+        }
+    }
+
+    public static class Result {
+        private final String name;
+        private final int rows;
+        private final double meanNanos;
+        private final double stdevNanos;
+        private final int iterations;
+        private final long operations;
+
+        Result(String name, int rows, double[] nanosPerOp, long operations) {
+            this.name = name;
+            this.rows = rows;
+            this.iterations = nanosPerOp.length;
+            this.operations = operations;
+            double sum = 0;
+            for (double value : nanosPerOp) sum += value;
+            this.meanNanos = sum / nanosPerOp.length;
+            double squares = 0;
+            for (double value : nanosPerOp) squares += (value - meanNanos) * (value - meanNanos);
+            this.stdevNanos = nanosPerOp.length > 1 ? Math.sqrt(squares / (nanosPerOp.length - 1)) : 0;
+        }
+
+        private Result(String name, int rows, double meanNanos, double stdevNanos, int iterations, long operations) {
+            this.name = name;
+            this.rows = rows;
+            this.meanNanos = meanNanos;
+            this.stdevNanos = stdevNanos;
+            this.iterations = iterations;
+            this.operations = operations;
+        }
+
+        public String getName() { return name; }
+        public int getRows() { return rows; }
+        public double getMeanNanos() { return meanNanos; }
+        public double getStdevNanos() { return stdevNanos; }
+        public int getIterations() { return iterations; }
+        public long getOperations() { return operations; }
+        public double getOpsPerSecond() { return 1e9 / meanNanos; }
+
+        // One CSV line: name,rows,iterations,operations,meanNanos,stdevNanos
+        public String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.1f", name, rows, iterations, operations, meanNanos, stdevNanos);
+        }
+
+        public static Result fromCsv(String line) {
+            String[] parts = line.split(",");
+            return new Result(parts[0], Integer.parseInt(parts[1]), Double.parseDouble(parts[4]), Double.parseDouble(parts[5]),
+                    Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.hospital.bench;
+
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.core.Session;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.model.User;
+import com.hospital.observer.ActivityLogger;
+import com.hospital.observer.EventManager;
+import com.hospital.service.FileManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Benchmark suite for persistence, queries, login, state transitions and event publishing, run with the Harness.
+// Each data set size gets its own generated data set (DatasetGenerator, fixed seed) and a fresh JVM, because
+// FileManager reads hospital.data.dir once per JVM. The forked JVM gets the same JVM options as this one (e.g. -Xmx4g).
+// Benchmarks that do not depend on the data set (state transitions, event publishing) run with the first size only.
+//
+// Options (JMH-style):
+//   -p rows=1000,10000,...  data set sizes in appointments; patients = rows / 10, doctors = rows / 1000 (default 1k-1M)
+//   -wi N / -i N / -r ms    warm-up iterations, measured iterations, iteration time (default 3 / 5 / 1000)
+//   -rff file.csv           also write the results as CSV, e.g. to compare two builds
+//   regex                   only run benchmarks whose name matches, e.g. "FileManager\.load.*"
+// Usage: java -Xmx4g -cp out:bench-out com.hospital.bench.HospitalBenchmarks [options] [regex]
+public class HospitalBenchmarks {
+    private static final String RESULT_PREFIX = "RESULT ";
+    private static final int LOGIN_WORKING_SET = 64;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {1_000, 10_000, 100_000, 1_000_000};
+        int warmup = 3, iterations = 5;
+        long iterationMillis = 1000;
+        String csvFile = null;
+        String filter = ".*";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fork":
+                    runFork(Integer.parseInt(args[i + 1]), Boolean.parseBoolean(args[i + 2]), filter,
+                            new Harness(Integer.parseInt(args[i + 3]), Integer.parseInt(args[i + 4]), Long.parseLong(args[i + 5])));
+                    return;
+                case "-p": sizes = parseSizes(args[++i]); break;
+                case "-wi": warmup = Integer.parseInt(args[++i]); break;
+                case "-i": iterations = Integer.parseInt(args[++i]); break;
+                case "-r": iterationMillis = Long.parseLong(args[++i]); break;
+                case "-rff": csvFile = args[++i]; break;
+                default: filter = args[i];
+            }
+        }
+
+        List<Harness.Result> results = new ArrayList<>();
+        for (int s = 0; s < sizes.length; s++) {
+            int rows = sizes[s];
+            Path dir = Files.createTempDirectory("hospital-bench-" + rows);
+            System.out.println("# Generating data set: " + rows + " appointments, " + patients(rows) + " patients, " + doctors(rows) + " doctors");
+            new DatasetGenerator(42L).generate(dir, patients(rows), doctors(rows), rows);
+            System.out.println("# Fork: rows = " + rows);
+            try {
+                results.addAll(fork(dir, rows, s == 0, filter, warmup, iterations, iterationMillis));
+            } finally {
+                deleteRecursively(dir);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-42s %9s %5s %16s %14s %14s%n", "Benchmark", "(rows)", "Cnt", "ops/s", "us/op", "stdev us");
+        for (Harness.Result result : results) {
+            System.out.printf("%-42s %9s %5d %16.1f %14.3f %14.3f%n", result.getName(), result.getRows() == 0 ? "-" : String.valueOf(result.getRows()),
+                    result.getIterations(), result.getOpsPerSecond(), result.getMeanNanos() / 1e3, result.getStdevNanos() / 1e3);
+        }
+        if (csvFile != null) {
+            try (BufferedWriter out = Files.newBufferedWriter(Paths.get(csvFile), StandardCharsets.UTF_8)) {
+                out.write("name,rows,iterations,operations,meanNanos,stdevNanos");
+                out.newLine();
+                for (Harness.Result result : results) {
+                    out.write(result.toCsv());
+                    out.newLine();
+                }
+            }
+            System.out.println("Results written to " + csvFile);
+        }
+    }
+
+    private static List<Harness.Result> fork(Path dir, int rows, boolean sizeIndependent, String filter,
+                                             int warmup, int iterations, long iterationMillis) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                "-Dhospital.data.dir=" + dir, "-Dhospital.console.events=false",
+                HospitalBenchmarks.class.getName(), filter, "--fork", String.valueOf(rows), String.valueOf(sizeIndependent),
+                String.valueOf(warmup), String.valueOf(iterations), String.valueOf(iterationMillis)));
+        Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<Harness.Result> results = new ArrayList<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    Harness.Result result = Harness.Result.fromCsv(line.substring(RESULT_PREFIX.length()));
+                    System.out.printf("  %-42s %12.3f us/op%n", result.getName(), result.getMeanNanos() / 1e3);
+                    results.add(result);
+                } else {
+                    System.out.println("  " + line); // Errors and warnings of the forked JVM
+                }
+            }
+        }
+        if (child.waitFor() != 0) {
+            System.err.println("Benchmark fork for " + rows + " rows exited with " + child.exitValue());
+        }
+        return results;
+    }
+
+    // Runs inside the forked JVM. Application output (load times, etc.) is muted; results go out as RESULT lines.
+    private static void runFork(int rows, boolean sizeIndependent, String filter, Harness harness) throws Exception {
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Pattern pattern = Pattern.compile(filter);
+        Suite suite = new Suite(report, harness, pattern, rows);
+
+        FileManager fileManager = FileManager.getInstance();
+        List<Patient> patients = fileManager.loadPatients();
+        List<Doctor> doctors = fileManager.loadDoctors();
+        List<Appointment> appointments = fileManager.loadAppointments();
+        List<User> users = fileManager.loadUsers();
+        suite.run("FileManager.loadPatients", i -> fileManager.loadPatients());
+        suite.run("FileManager.loadDoctors", i -> fileManager.loadDoctors());
+        suite.run("FileManager.loadAppointments", i -> fileManager.loadAppointments());
+        suite.run("FileManager.loadUsers", i -> fileManager.loadUsers());
+        // Saves rewrite the files with the content they already have, so the data set stays the same
+        suite.run("FileManager.savePatients", i -> { fileManager.savePatients(patients); return patients; });
+        suite.run("FileManager.saveDoctors", i -> { fileManager.saveDoctors(doctors); return doctors; });
+        suite.run("FileManager.saveAppointments", i -> { fileManager.saveAppointments(appointments); return appointments; });
+        suite.run("FileManager.saveUsers", i -> { fileManager.saveUsers(users); return users; });
+
+        // The facade is wired as in HospitalManagementSystem: events are logged by an ActivityLogger
+        EventManager eventManager = new EventManager();
+        eventManager.registerObserver(new ActivityLogger());
+        HospitalManagementFacade facade = HospitalManagementFacade.create(eventManager);
+        Session staff = facade.openSession("staff", DatasetGenerator.STAFF_PASSWORD);
+        int doctorCount = doctors(rows);
+        // IDs are built up front so formatting them is not measured; lookups walk them with a large odd stride,
+        // so consecutive calls hit unrelated entries
+        String[] patientIds = new String[patients(rows)];
+        for (int p = 0; p < patientIds.length; p++) patientIds[p] = DatasetGenerator.patientId(p);
+        String[] doctorIds = new String[doctorCount];
+        for (int d = 0; d < doctorIds.length; d++) doctorIds[d] = DatasetGenerator.doctorId(d);
+        suite.run("Facade.findPatientById",
+                i -> facade.findPatientById(staff, patientIds[(int) (i * 7919 % patientIds.length)]));
+        suite.run("Facade.getAppointmentsForDoctor",
+                i -> facade.getAppointmentsForDoctor(staff, doctorIds[(int) (i * 7919 % doctorIds.length)], null));
+        suite.run("Facade.getAppointmentsForPatient",
+                i -> facade.getAppointmentsForPatient(staff, patientIds[(int) (i * 7919 % patientIds.length)]));
+        // Login + logout of a fixed working set of doctors, whose credentials are cached in a setup pass first:
+        // a cold login is one PBKDF2 hash (see LoginBenchmark), which would otherwise dominate the warm-up
+        String[] usernames = new String[Math.min(doctorCount, LOGIN_WORKING_SET)];
+        for (int d = 0; d < usernames.length; d++) usernames[d] = DatasetGenerator.doctorUsername(d);
+        if (suite.selects("Facade.login")) {
+            for (String username : usernames) {
+                facade.closeSession(facade.openSession(username, DatasetGenerator.DOCTOR_PASSWORD));
+            }
+        }
+        suite.run("Facade.login", i -> {
+            Session session = facade.openSession(usernames[(int) (i % usernames.length)], DatasetGenerator.DOCTOR_PASSWORD);
+            facade.closeSession(session);
+            return session;
+        });
+
+        if (sizeIndependent) {
+            Suite independent = new Suite(report, harness, pattern, 0);
+            LocalDateTime slot = LocalDateTime.of(2030, 1, 1, 9, 0);
+            independent.run("Appointment.acceptAndCancel", i -> {
+                Appointment appointment = new Appointment("APP-1", "PAT-1", "DOC-1", slot, "Routine checkup");
+                appointment.acceptAppointment("DOC-1");
+                return appointment.cancelAppointment("staff");
+            });
+            EventManager sync = new EventManager(EventManager.DispatchMode.SYNC, 1024);
+            sync.registerObserver(new ActivityLogger());
+            independent.run("EventManager.publishSync", i -> { sync.publishEvent("BENCHMARK_EVENT", "Event " + i); return sync; });
+            EventManager async = new EventManager(EventManager.DispatchMode.ASYNC, 1024);
+            async.registerObserver(new ActivityLogger());
+            independent.run("EventManager.publishAsync", i -> { async.publishEvent("BENCHMARK_EVENT", "Event " + i); return async; });
+            async.shutdown();
+        }
+        eventManager.shutdown();
+        fileManager.flushActivityLog();
+        System.exit(0); // Stop the application's background threads
+    }
+
+    private static class Suite {
+        private final PrintStream report;
+        private final Harness harness;
+        private final Pattern filter;
+        private final int rows;
+
+        Suite(PrintStream report, Harness harness, Pattern filter, int rows) {
+            this.report = report;
+            this.harness = harness;
+            this.filter = filter;
+            this.rows = rows;
+        }
+
+        boolean selects(String name) {
+            return filter.matcher(name).find();
+        }
+
+        void run(String name, Harness.Benchmark benchmark) throws Exception {
+            if (selects(name)) {
+                report.println(RESULT_PREFIX + harness.measure(name, rows, benchmark).toCsv());
+            }
+        }
+    }
+
+    private static int patients(int rows) { return Math.max(1, rows / 10); }
+    private static int doctors(int rows) { return Math.max(1, rows / 1000); }
+
+    private static int[] parseSizes(String parameter) {
+        String[] values = parameter.substring(parameter.indexOf('=') + 1).split(",");
+        int[] sizes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            sizes[i] = Integer.parseInt(values[i].trim());
+        }
+        return sizes;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hospital.bench;
+
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.http.HospitalHttpServer;
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.observer.EventManager;
+import com.hospital.repository.AppointmentRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Closed-loop load test of the HTTP API: starts HospitalHttpServer in-process on a generated data set, then each
+// client thread logs in and sends its next request as soon as the previous one has been answered, drawing from a
+// kiosk/front-desk mix (patient lookups, patient pages, a patient's appointments, doctor worklists, bookings).
+// Reports requests per second and latency percentiles overall and per request type, measured at the client.
+// Usage: java -cp out:bench-out com.hospital.bench.HttpLoadTest [seconds] [clients] [appointments]
+public class HttpLoadTest {
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final LocalDateTime BOOKING_START = LocalDateTime.of(2040, 1, 1, 9, 0); // After every generated slot
+
+    private static final String[] TYPES = {"GET patient", "GET patients page", "GET patient appointments", "GET doctor worklist", "POST appointment"};
+    private static final int[] WEIGHTS = {50, 15, 15, 15, 5}; // Percent of requests
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int appointments = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int patients = Math.max(1, appointments / 10);
+        int doctors = Math.max(1, appointments / 1000);
+
+        Path dataDir = Files.createTempDirectory("hospital-http");
+        new DatasetGenerator(42L).generate(dataDir, patients, doctors, appointments);
+        System.setProperty("hospital.data.dir", dataDir.toString());
+        System.setProperty("hospital.console.events", "false");
+        HospitalHttpServer server = new HospitalHttpServer(HospitalManagementFacade.create(new EventManager()), 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort() + "/api";
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+        System.out.printf("Data set: %d patients, %d doctors, %d appointments in %s%n", patients, doctors, appointments, dataDir);
+        System.out.printf("Load: %d closed-loop clients for %d s (after a %d s warm-up)%n%n", clients, seconds, Math.max(1, seconds / 4));
+
+        String staffToken = login(http, base, "staff", DatasetGenerator.STAFF_PASSWORD);
+        String[] doctorTokens = new String[Math.min(doctors, clients)];
+        for (int i = 0; i < doctorTokens.length; i++) {
+            doctorTokens[i] = login(http, base, DatasetGenerator.doctorUsername(i), DatasetGenerator.DOCTOR_PASSWORD);
+        }
+        long slotMinutes = AppointmentRepository.getSlotDuration().toMinutes();
+        AtomicLong nextSlot = new AtomicLong();
+
+        run(http, base, clients, Math.max(1, seconds / 4), staffToken, doctorTokens, patients, slotMinutes, nextSlot, false);
+        run(http, base, clients, seconds, staffToken, doctorTokens, patients, slotMinutes, nextSlot, true);
+        server.stop(0);
+    }
+
+    private static void run(HttpClient http, String base, int clients, int seconds, String staffToken, String[] doctorTokens,
+                            int patients, long slotMinutes, AtomicLong nextSlot, boolean report) throws InterruptedException {
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram[] byType = new LatencyHistogram[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) byType[i] = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(client);
+                int doctorIndex = client % doctorTokens.length;
+                String doctorToken = doctorTokens[doctorIndex];
+                awaitQuietly(start);
+                while (System.nanoTime() < deadline) {
+                    int type = pick(random.nextInt(100));
+                    HttpRequest request = request(base, type, random, patients, doctorIndex, staffToken, doctorToken, slotMinutes, nextSlot);
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() >= 400) errors.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    long elapsed = System.nanoTime() - begin;
+                    all.record(elapsed);
+                    byType[type].record(elapsed);
+                }
+            }, "load-client-" + c);
+            workers.add(worker);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        double elapsed = (System.nanoTime() - begin) / 1e9;
+        if (report) {
+            System.out.printf("%-26s %10s %10s %10s %10s %10s %10s%n", "request", "count", "rps", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (int i = 0; i < TYPES.length; i++) print(TYPES[i], byType[i].snapshot(), elapsed);
+            print("all", all.snapshot(), elapsed);
+            System.out.printf("errors: %d%n", errors.get());
+        }
+    }
+
+    private static HttpRequest request(String base, int type, Random random, int patients, int doctorIndex, String staffToken,
+                                       String doctorToken, long slotMinutes, AtomicLong nextSlot) {
+        String patientId = DatasetGenerator.patientId(random.nextInt(patients));
+        switch (type) {
+            case 0:
+                return get(base + "/patients/" + patientId, staffToken);
+            case 1:
+                return get(base + "/patients?limit=20&cursor=" + random.nextInt(patients), staffToken);
+            case 2:
+                return get(base + "/patients/" + patientId + "/appointments", staffToken);
+            case 3:
+                return get(base + "/doctors/" + DatasetGenerator.doctorId(doctorIndex) + "/appointments?status=PENDING_APPROVAL", doctorToken);
+            default:
+                // Every booking gets its own slot, so none of them conflict
+                LocalDateTime slot = BOOKING_START.plusMinutes(slotMinutes * nextSlot.getAndIncrement());
+                String body = "{\"patientId\":\"" + patientId + "\",\"doctorId\":\"" + DatasetGenerator.doctorId(doctorIndex)
+                        + "\",\"dateTime\":\"" + slot + "\",\"description\":\"Load test visit\"}";
+                return HttpRequest.newBuilder(URI.create(base + "/appointments")).header("Authorization", "Bearer " + staffToken)
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+    }
+
+    private static HttpRequest get(String uri, String token) {
+        return HttpRequest.newBuilder(URI.create(uri)).header("Authorization", "Bearer " + token).GET().build();
+    }
+
+    private static String login(HttpClient http, String base, String username, String password) throws Exception {
+        String body = "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        Matcher token = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !token.find()) {
+            throw new IllegalStateException("Login failed for " + username + ": " + response.body());
+        }
+        return token.group(1);
+    }
+
+    private static int pick(int roll) {
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) return i;
+        }
+        return WEIGHTS.length - 1;
+    }
+
+    private static void print(String name, LatencyHistogram.Snapshot snapshot, double seconds) {
+        System.out.printf(Locale.ROOT, "%-26s %10d %10.0f %10.2f %10.2f %10.2f %10.2f%n", name, snapshot.getCount(), snapshot.getCount() / seconds,
+                snapshot.getValueAtPercentile(50) / 1e6, snapshot.getValueAtPercentile(99) / 1e6,
+                snapshot.getValueAtPercentile(99.9) / 1e6, snapshot.getMax() / 1e6);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hospital.bench;
+
+import com.hospital.model.Role;
+import com.hospital.model.User;
+import com.hospital.repository.InMemoryRepository;
+import com.hospital.security.CredentialCache;
+import com.hospital.security.PasswordHasher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Login throughput: username lookup (linear scan vs. index) and credential verification (PBKDF2 vs. cache).
+// Usage: java -cp out:bench-out com.hospital.bench.LoginBenchmark [userCounts...]
+public class LoginBenchmark {
+    private static final String PASSWORD = "secret123";
+    private static final int LOOKUPS = 200_000;
+    private static final int COLD_LOGINS = 20;
+    private static final int WARM_LOGINS = 200_000;
+
+    public static void main(String[] args) {
+        int[] userCounts = args.length > 0 ? parseCounts(args) : new int[] {1_000, 10_000, 100_000};
+        String storedHash = PasswordHasher.hash(PASSWORD); // Shared by all users: we measure lookups, not hashing N users
+
+        System.out.printf("%-10s %18s %18s %16s %16s%n", "users", "scan lookups/s", "index lookups/s", "cold logins/s", "warm logins/s");
+        for (int userCount : userCounts) {
+            List<User> userList = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                userList.add(new User("user" + i, storedHash, Role.DOCTOR, "DOC-" + i));
+            }
+            InMemoryRepository<User> users = new InMemoryRepository<>(User::getUsername, userList);
+            CredentialCache cache = new CredentialCache(1024);
+
+            double scan = opsPerSecond(Math.min(LOOKUPS, 20_000_000 / userCount), i -> {
+                String username = "user" + (i * 7919 % userCount);
+                return userList.stream().filter(u -> u.getUsername().equals(username)).findFirst().isPresent();
+            });
+            double index = opsPerSecond(LOOKUPS, i -> users.findById("user" + (i * 7919 % userCount)).isPresent());
+            double cold = opsPerSecond(COLD_LOGINS, i -> login(users, new CredentialCache(1), "user" + i));
+            for (int i = 0; i < 1024; i++) { // Warm the cache for the working set used below
+                login(users, cache, "user" + (i % userCount));
+            }
+            double warm = opsPerSecond(WARM_LOGINS, i -> login(users, cache, "user" + (i % Math.min(1024, userCount))));
+
+            System.out.printf("%-10d %18.0f %18.0f %16.1f %16.0f%n", userCount, scan, index, cold, warm);
+        }
+    }
+
+    private static boolean login(InMemoryRepository<User> users, CredentialCache cache, String username) {
+        Optional<User> user = users.findById(username);
+        return user.isPresent() && cache.verify(user.get(), PASSWORD);
+    }
+
+    private static double opsPerSecond(int operations, Operation operation) {
+        int warmup = Math.max(1, operations / 10);
+        for (int i = 0; i < warmup; i++) {
+            check(operation.run(i));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            check(operation.run(i));
+        }
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void check(boolean ok) {
+        if (!ok) throw new IllegalStateException("Benchmark operation failed");
+    }
+
+    private static int[] parseCounts(String[] args) {
+        int[] counts = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i]);
+        }
+        return counts;
+    }
+
+    private interface Operation {
+        boolean run(int iteration);
+    }
+}
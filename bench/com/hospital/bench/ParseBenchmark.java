@@ -0,0 +1,65 @@
+package com.hospital.bench;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.model.User;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+// Record parsing throughput (rows/s) and allocation (bytes/row) of each model's fromFileString, on the lines of a
+// generated data set held in memory, so file I/O is not part of the measurement. Each file is parsed five times
+// and the last round reported, after JIT warm-up. Allocation comes from com.sun.management.ThreadMXBean (HotSpot).
+// Only uses fromFileString, so the same program can be run against an older build for a before/after comparison.
+// Usage: java -cp out:bench-out com.hospital.bench.ParseBenchmark [appointments]
+public class ParseBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int appointments = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int patients = Math.max(1, appointments / 10);
+        int doctors = Math.max(1, appointments / 1000);
+        Path dir = Files.createTempDirectory("hospital-parse");
+        new DatasetGenerator(42L).generate(dir, patients, doctors, appointments);
+        System.out.println("Data set: " + appointments + " appointments, " + patients + " patients, " + doctors + " doctors in " + dir);
+
+        System.out.printf("%-14s %10s %14s %12s %10s%n", "file", "rows", "rows/s", "bytes/row", "ms");
+        run("appointments", lines(dir, "appointments.txt"), Appointment::fromFileString);
+        run("patients", lines(dir, "patients.txt"), Patient::fromFileString);
+        run("doctors", lines(dir, "doctors.txt"), Doctor::fromFileString);
+        run("users", lines(dir, "users.txt"), User::fromFileString);
+    }
+
+    private static List<String> lines(Path dir, String file) throws IOException {
+        return Files.readAllLines(dir.resolve(file), StandardCharsets.UTF_8);
+    }
+
+    private static void run(String name, List<String> lines, Function<String, ?> parser) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // Small files are repeated so every round runs long enough to time
+        int repeat = Math.max(1, 200_000 / lines.size());
+        long rows = (long) lines.size() * repeat;
+        long bytes = 0, nanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            int parsed = 0;
+            long before = threads.getThreadAllocatedBytes(thread);
+            long began = System.nanoTime();
+            for (int r = 0; r < repeat; r++) {
+                for (String line : lines) {
+                    if (parser.apply(line) != null) parsed++;
+                }
+            }
+            nanos = System.nanoTime() - began;
+            bytes = threads.getThreadAllocatedBytes(thread) - before;
+            if (parsed != rows) throw new IllegalStateException(name + ": only " + parsed + " of " + rows + " rows parsed");
+        }
+        System.out.printf("%-14s %10d %14.0f %12.1f %10.1f%n", name, rows, rows / (nanos / 1e9), bytes / (double) rows, nanos / 1e6);
+    }
+}
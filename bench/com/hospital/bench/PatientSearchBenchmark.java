@@ -0,0 +1,90 @@
+package com.hospital.bench;
+
+import com.hospital.model.Patient;
+import com.hospital.repository.PatientSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+// Patient search: index build time and heap, then latency of typical front-desk queries against the index, compared
+// with scanning every patient (what finding someone by name took before). Names are built from syllables, giving
+// tens of thousands of distinct surnames, because the DatasetGenerator's 144 name combinations would make every query
+// match a large share of the table.
+// Usage: java -Xmx4g -cp out:bench-out com.hospital.bench.PatientSearchBenchmark [patients] [queriesPerType]
+public class PatientSearchBenchmark {
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "sa", "len", "do", "vi", "na", "ter", "shi", "ro", "ba",
+            "el", "an", "mi", "gu", "pa", "tho", "ze", "lu", "ran", "ko", "ve", "is", "sha", "di", "mar", "fe", "jo", "ne"};
+    private static final int LIMIT = 20;
+    private static final int NAME_WIDTH = 28;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Random random = new Random(42);
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = capitalize(word(random, 2)) + " " + capitalize(word(random, 3));
+            patients.add(new Patient(DatasetGenerator.patientId(i), name, String.format("9%09d", random.nextInt(1_000_000_000)),
+                    1 + random.nextInt(95), random.nextBoolean() ? "F" : "M", "Main Road"));
+        }
+
+        long baseline = Harness.usedHeap();
+        long start = System.nanoTime();
+        PatientSearchIndex index = new PatientSearchIndex();
+        for (Patient patient : patients) index.add(patient);
+        long buildNanos = System.nanoTime() - start;
+        long indexBytes = Harness.usedHeap() - baseline;
+        System.out.printf(Locale.ROOT, "%d patients: index built in %.0f ms (%.2f us/patient), %.1f MB (%d bytes/patient)%n%n",
+                count, buildNanos / 1e6, buildNanos / 1e3 / count, indexBytes / 1e6, indexBytes / count);
+
+        Harness.Latencies.printHeader(NAME_WIDTH);
+        run("surname", queries, index, i -> surname(patients.get(i)));
+        run("surname prefix (4 chars)", queries, index, i -> surname(patients.get(i)).substring(0, 4));
+        run("surname with a typo", queries, index, i -> swapMiddle(surname(patients.get(i))));
+        run("first name + surname", queries, index, i -> patients.get(i).getName());
+        run("first name + typo surname", queries, index, i -> firstName(patients.get(i)) + " " + swapMiddle(surname(patients.get(i))));
+        run("phone prefix (6 digits)", queries, index, i -> patients.get(i).getContactNumber().substring(0, 6));
+        run("full phone number", queries, index, i -> patients.get(i).getContactNumber());
+
+        // The alternative without an index: look at every patient
+        Harness.latencies(Math.min(queries, 50), count, 7, i -> surname(patients.get(i)).toLowerCase(Locale.ROOT), wanted -> {
+            int found = 0;
+            for (Patient patient : patients) {
+                if (patient.getName().toLowerCase(Locale.ROOT).contains(wanted)) found++;
+            }
+            return found;
+        }).print("linear scan (contains)", NAME_WIDTH);
+    }
+
+    private static void run(String name, int queries, PatientSearchIndex index, IntFunction<String> queryFor) {
+        Harness.latencies(queries, index.size(), name.hashCode(), queryFor, query -> index.search(query, LIMIT).size())
+                .print(name, NAME_WIDTH);
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        return word.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String firstName(Patient patient) {
+        return patient.getName().substring(0, patient.getName().indexOf(' '));
+    }
+
+    private static String surname(Patient patient) {
+        return patient.getName().substring(patient.getName().indexOf(' ') + 1);
+    }
+
+    // "Kariter" -> "Kairter": the kind of slip a typist makes
+    private static String swapMiddle(String word) {
+        int i = word.length() / 2;
+        return word.substring(0, i - 1) + word.charAt(i) + word.charAt(i - 1) + word.substring(i + 1);
+    }
+}
@@ -0,0 +1,294 @@
+package com.hospital.bench;
+
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.core.Session;
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.observer.ActivityLogger;
+import com.hospital.observer.EventManager;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.service.FileManager;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Long-running soak test of the facade: worker threads replay a mixed front-desk/doctor workload (lookups, patient
+// histories, doctor worklists, bookings, accepts, rejects and cancellations) against a generated data set, with the
+// activity log and journal writing to disk as in production. Every interval it prints throughput, latency
+// percentiles, GC pauses, heap after GC and data-file sizes, so throughput decay, latency creep, heap growth or
+// runaway files show up over hours; the end report has per-operation percentiles and per-file growth.
+// The workload is paced to opsPerSecond in total (0 = as fast as possible). Paced latencies are measured from when each
+// operation was due, not when it started, so a stall also counts against the operations queued up behind it.
+// Every booking stays in memory, so an unpaced run fills the heap within minutes; size the rate for the run length.
+// Usage: java -Xmx2g -cp out:bench-out com.hospital.bench.SoakTest [minutes] [threads] [appointments] [opsPerSecond] [reportSeconds] [dataDir]
+// Without dataDir a data set is generated in a temporary directory (patients = appointments/10, doctors = appointments/1000).
+public class SoakTest {
+    private static final LocalDateTime BOOKING_START = LocalDateTime.of(2040, 1, 1, 9, 0); // After every generated slot
+
+    private enum Operation {
+        FIND_PATIENT(30), PATIENT_HISTORY(15), DOCTOR_WORKLIST(20), SCHEDULE(15), ACCEPT(10), REJECT(5), CANCEL(5);
+
+        final int weight; // Percent of operations
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final HospitalManagementFacade facade;
+    private final long nanosPerOperation; // Per worker; 0 = unpaced
+    private final int patients;
+    private final int doctors;
+    private final long slotMinutes = AppointmentRepository.getSlotDuration().toMinutes();
+    private final AtomicLong nextSlot = new AtomicLong(); // Shared, so bookings never collide with each other
+
+    private final LatencyHistogram[] totals = new LatencyHistogram[Operation.values().length];
+    private final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+    private final AtomicLong failures = new AtomicLong();
+    private final LatencyHistogram gcPauses = new LatencyHistogram();
+    private final AtomicReference<LatencyHistogram> intervalGcPauses = new AtomicReference<>(new LatencyHistogram());
+
+    private SoakTest(HospitalManagementFacade facade, int threads, double opsPerSecond, int patients, int doctors) {
+        this.facade = facade;
+        this.nanosPerOperation = opsPerSecond > 0 ? (long) (1e9 * threads / opsPerSecond) : 0;
+        this.patients = patients;
+        this.doctors = doctors;
+        for (int i = 0; i < totals.length; i++) totals[i] = new LatencyHistogram();
+    }
+
+    public static void main(String[] args) throws Exception {
+        double minutes = args.length > 0 ? Double.parseDouble(args[0]) : 60;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int appointments = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        double opsPerSecond = args.length > 3 ? Double.parseDouble(args[3]) : 1000;
+        int reportSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 60;
+        int patients = Math.max(1, appointments / 10);
+        int doctors = Math.max(1, appointments / 1000);
+        Path dataDir;
+        if (args.length > 5) {
+            dataDir = Paths.get(args[5]); // Must hold a DatasetGenerator data set of the same size
+        } else {
+            dataDir = Files.createTempDirectory("hospital-soak");
+            new DatasetGenerator(42L).generate(dataDir, patients, doctors, appointments);
+        }
+        System.setProperty("hospital.data.dir", dataDir.toString());
+        System.setProperty("hospital.console.events", "false");
+
+        EventManager eventManager = new EventManager();
+        eventManager.registerObserver(new ActivityLogger());
+        SoakTest soak = new SoakTest(HospitalManagementFacade.create(eventManager), threads, opsPerSecond, patients, doctors);
+        System.out.printf("Soak: %d threads at %s for %.1f min over %d patients, %d doctors, %d appointments in %s%n%n",
+                threads, opsPerSecond > 0 ? String.format("%.0f ops/s", opsPerSecond) : "full speed", minutes, patients, doctors, appointments, dataDir);
+        soak.run(threads, (long) (minutes * 60_000), reportSeconds * 1000L, dataDir);
+        eventManager.shutdown();
+        FileManager.getInstance().flushActivityLog();
+    }
+
+    private void run(int threads, long durationMillis, long reportMillis, Path dataDir) throws Exception {
+        watchGcPauses();
+        Map<String, Long> initialSizes = fileSizes(dataDir);
+        CountDownLatch start = new CountDownLatch(1);
+        long begin = System.nanoTime();
+        long deadline = begin + durationMillis * 1_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> work(worker, start, deadline), "soak-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        System.out.printf("%8s %10s %9s %9s %9s %7s %9s %9s %11s %12s%n",
+                "elapsed", "ops/s", "p50 us", "p99 us", "max ms", "gcs", "gc p99ms", "gc maxms", "heap MB", "data MB");
+        start.countDown();
+        long nextReport = System.nanoTime() + reportMillis * 1_000_000L;
+        long intervalStart = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.max(1, Math.min((nextReport - System.nanoTime()) / 1_000_000L, (deadline - System.nanoTime()) / 1_000_000L)));
+            if (System.nanoTime() >= nextReport || System.nanoTime() >= deadline) {
+                long now = System.nanoTime();
+                printInterval((now - begin) / 1e9, (now - intervalStart) / 1e9, dataDir);
+                intervalStart = now;
+                nextReport = now + reportMillis * 1_000_000L;
+            }
+        }
+        for (Thread worker : workers) worker.join();
+        printSummary((System.nanoTime() - begin) / 1e9, initialSizes, fileSizes(dataDir));
+    }
+
+    // One worker: a front-desk session plus the session of "its" doctor, whose pending bookings it later decides on.
+    private void work(int worker, CountDownLatch start, long deadline) {
+        Random random = new Random(worker);
+        int doctorIndex = worker % doctors;
+        String doctorId = DatasetGenerator.doctorId(doctorIndex);
+        Session staff = facade.openSession("staff", DatasetGenerator.STAFF_PASSWORD);
+        Session doctor = facade.openSession(DatasetGenerator.doctorUsername(doctorIndex), DatasetGenerator.DOCTOR_PASSWORD);
+        Deque<String> pending = new ArrayDeque<>(); // Booked by this worker, awaiting the doctor
+        Deque<String> accepted = new ArrayDeque<>(); // Candidates for cancellation
+        awaitQuietly(start);
+        long due = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            if (nanosPerOperation > 0) {
+                due += nanosPerOperation;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random.nextInt(100));
+            if ((operation == Operation.ACCEPT || operation == Operation.REJECT) && pending.isEmpty()
+                    || operation == Operation.CANCEL && accepted.isEmpty()) {
+                operation = Operation.SCHEDULE; // Nothing to act on yet
+            }
+            String patientId = DatasetGenerator.patientId(random.nextInt(patients));
+            long begin = nanosPerOperation > 0 ? due : System.nanoTime();
+            boolean ok;
+            switch (operation) {
+                case FIND_PATIENT:
+                    ok = facade.findPatientById(staff, patientId).isPresent();
+                    break;
+                case PATIENT_HISTORY:
+                    ok = facade.getAppointmentsForPatient(staff, patientId) != null;
+                    break;
+                case DOCTOR_WORKLIST:
+                    ok = facade.getAppointmentsForDoctor(doctor, doctorId, AppointmentStatus.PENDING_APPROVAL) != null;
+                    break;
+                case SCHEDULE:
+                    LocalDateTime slot = BOOKING_START.plusMinutes(slotMinutes * nextSlot.getAndIncrement());
+                    Appointment appointment = facade.scheduleNewAppointment(staff, patientId, doctorId, slot, "Soak visit");
+                    ok = appointment != null;
+                    if (ok) pending.addLast(appointment.getAppointmentId());
+                    break;
+                case ACCEPT:
+                    String toAccept = pending.pollFirst();
+                    ok = facade.processAppointmentAction(doctor, toAccept, "ACCEPT");
+                    if (ok) accepted.addLast(toAccept);
+                    break;
+                case REJECT:
+                    ok = facade.processAppointmentAction(doctor, pending.pollFirst(), "REJECT");
+                    break;
+                default:
+                    ok = facade.cancelAppointmentByStaff(staff, accepted.pollFirst());
+                    break;
+            }
+            long elapsed = System.nanoTime() - begin;
+            totals[operation.ordinal()].record(elapsed);
+            interval.get().record(elapsed);
+            if (!ok) failures.incrementAndGet();
+        }
+    }
+
+    // GC pause durations from the collectors' end-of-collection notifications; concurrent cycles are not pauses.
+    private void watchGcPauses() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                String kind = (info.getGcName() + " " + info.getGcAction()).toLowerCase(Locale.ROOT);
+                if (kind.contains("concurrent") || kind.contains("cycles")) return;
+                long nanos = info.getGcInfo().getDuration() * 1_000_000L;
+                gcPauses.record(nanos);
+                intervalGcPauses.get().record(nanos);
+            }, null, null);
+        }
+    }
+
+    private void printInterval(double elapsedSeconds, double intervalSeconds, Path dataDir) throws IOException {
+        LatencyHistogram.Snapshot ops = interval.getAndSet(new LatencyHistogram()).snapshot();
+        LatencyHistogram.Snapshot gcs = intervalGcPauses.getAndSet(new LatencyHistogram()).snapshot();
+        long dataBytes = 0;
+        for (long size : fileSizes(dataDir).values()) dataBytes += size;
+        System.out.printf(Locale.ROOT, "%7.0fs %10.0f %9.1f %9.1f %9.2f %7d %9.1f %9.1f %11.1f %12.2f%n",
+                elapsedSeconds, ops.getCount() / intervalSeconds, ops.getValueAtPercentile(50) / 1e3, ops.getValueAtPercentile(99) / 1e3,
+                ops.getMax() / 1e6, gcs.getCount(), gcs.getValueAtPercentile(99) / 1e6, gcs.getMax() / 1e6,
+                heapAfterLastGc() / 1e6, dataBytes / 1e6);
+    }
+
+    private void printSummary(double seconds, Map<String, Long> before, Map<String, Long> after) {
+        long operations = 0;
+        System.out.printf("%n%-16s %10s %10s %9s %9s %9s %9s%n", "operation", "count", "ops/s", "p50 us", "p99 us", "p99.9 us", "max ms");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram.Snapshot snapshot = totals[operation.ordinal()].snapshot();
+            operations += snapshot.getCount();
+            System.out.printf(Locale.ROOT, "%-16s %10d %10.0f %9.1f %9.1f %9.1f %9.2f%n", operation, snapshot.getCount(), snapshot.getCount() / seconds,
+                    snapshot.getValueAtPercentile(50) / 1e3, snapshot.getValueAtPercentile(99) / 1e3,
+                    snapshot.getValueAtPercentile(99.9) / 1e3, snapshot.getMax() / 1e6);
+        }
+        System.out.printf(Locale.ROOT, "%-16s %10d %10.0f   (%d refused: slot taken, nothing to act on, wrong status)%n",
+                "all", operations, operations / seconds, failures.get());
+        LatencyHistogram.Snapshot gcs = gcPauses.snapshot();
+        System.out.printf(Locale.ROOT, "%nGC pauses: %d, total %.0f ms (%.2f%% of run time), p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                gcs.getCount(), gcs.getMean() * gcs.getCount() / 1e6, gcs.getMean() * gcs.getCount() / 1e7 / seconds,
+                gcs.getValueAtPercentile(50) / 1e6, gcs.getValueAtPercentile(99) / 1e6, gcs.getMax() / 1e6);
+        System.out.printf("%n%-32s %14s %14s %14s%n", "data file", "start bytes", "end bytes", "bytes/hour");
+        Map<String, Long> files = new TreeMap<>(before);
+        files.putAll(after);
+        for (String file : files.keySet()) {
+            long start = before.getOrDefault(file, 0L);
+            long end = after.getOrDefault(file, 0L);
+            System.out.printf(Locale.ROOT, "%-32s %14d %14d %14.0f%n", file, start, end, (end - start) / seconds * 3600);
+        }
+    }
+
+    // Heap in use right after the most recent collection of any collector: a live-set estimate that only grows on a leak.
+    private static long heapAfterLastGc() {
+        com.sun.management.GcInfo latest = null;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof com.sun.management.GarbageCollectorMXBean)) continue;
+            com.sun.management.GcInfo info = ((com.sun.management.GarbageCollectorMXBean) gc).getLastGcInfo();
+            if (info != null && (latest == null || info.getEndTime() > latest.getEndTime())) latest = info;
+        }
+        long used = 0;
+        if (latest != null) {
+            for (MemoryUsage usage : latest.getMemoryUsageAfterGc().values()) used += usage.getUsed();
+        }
+        return used;
+    }
+
+    private static Map<String, Long> fileSizes(Path dataDir) throws IOException {
+        Map<String, Long> sizes = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDir)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) sizes.put(file.getFileName().toString(), Files.size(file));
+            }
+        }
+        return sizes;
+    }
+
+    private static Operation pick(int roll) {
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) return operation;
+        }
+        return Operation.FIND_PATIENT;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.hospital.bench;
+
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.observer.EventManager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cold-start time of HospitalManagementFacade (all four loads) from text files vs. binary snapshots.
+// Every measurement runs in a fresh JVM against the same generated data set:
+//   text           - parse the .txt files
+//   binary-convert - first binary start: parse the .txt files and write the .bin snapshots
+//   binary         - later binary starts: memory-mapped .bin snapshots
+// Usage: java -cp out:bench-out com.hospital.bench.StartupBenchmark [appointments] [runs]
+public class StartupBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            long start = System.nanoTime();
+            HospitalManagementFacade.create(new EventManager());
+            System.out.println("STARTUP_MS " + (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+        int appointments = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path dir = Files.createTempDirectory("hospital-startup");
+        new DatasetGenerator(42L).generate(dir, appointments / 10, Math.max(1, appointments / 1000), appointments);
+        System.out.println("Data set: " + appointments + " appointments, " + appointments / 10 + " patients in " + dir);
+
+        System.out.printf("%-16s %s%n", "mode", "startup ms per run");
+        System.out.printf("%-16s %s%n", "text", runChildren(dir, false, runs));
+        System.out.printf("%-16s %s%n", "binary-convert", runChildren(dir, true, 1));
+        System.out.printf("%-16s %s%n", "binary", runChildren(dir, true, runs));
+    }
+
+    private static List<Long> runChildren(Path dataDir, boolean binary, int runs) throws IOException, InterruptedException {
+        List<Long> timings = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process child = new ProcessBuilder(java, "-Xmx4g", "-cp", System.getProperty("java.class.path"),
+                    "-Dhospital.data.dir=" + dataDir, "-Dhospital.storage.binary=" + binary, "-Dhospital.console.events=false",
+                    StartupBenchmark.class.getName(), "--child")
+                    .redirectErrorStream(true).start();
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (line.startsWith("STARTUP_MS ")) {
+                        timings.add(Long.parseLong(line.substring("STARTUP_MS ".length())));
+                    }
+                }
+            }
+            child.waitFor();
+        }
+        return timings;
+    }
+}
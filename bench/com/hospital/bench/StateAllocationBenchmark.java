@@ -0,0 +1,80 @@
+package com.hospital.bench;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Heap allocated per appointment load and per state transition, measured with the per-thread allocation
+// counter of com.sun.management.ThreadMXBean (HotSpot). Each phase is repeated and the last round reported,
+// after JIT warm-up.
+//   load       - Appointment.fromFileString on pre-built record lines (parsing included)
+//   construct  - new Appointment(..., status) with the fields already parsed: the state assignment in isolation
+//   transition - accept + cancel on pending appointments (no listener attached)
+// Usage: java -cp out:bench-out com.hospital.bench.StateAllocationBenchmark [appointments]
+public class StateAllocationBenchmark {
+    private static final AppointmentStatus[] STATUSES = {AppointmentStatus.PENDING_APPROVAL, AppointmentStatus.ACCEPTED,
+            AppointmentStatus.REJECTED, AppointmentStatus.CANCELLED_BY_STAFF};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = new Appointment(DatasetGenerator.appointmentId(i), DatasetGenerator.patientId(i % 1000),
+                    DatasetGenerator.doctorId(i % 50), start.plusMinutes(30L * i), "Routine checkup", STATUSES[i % STATUSES.length]).toFileString();
+        }
+        LocalDateTime[] times = new LocalDateTime[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = start.plusMinutes(30L * i);
+        }
+
+        long loadBytes = 0, constructBytes = 0, transitionBytes = 0;
+        double loadMs = 0, constructMs = 0, transitionMs = 0;
+        for (int round = 0; round < 5; round++) {
+            List<Appointment> loaded = new ArrayList<>(count);
+            long before = threads.getThreadAllocatedBytes(thread);
+            long began = System.nanoTime();
+            for (String line : lines) {
+                loaded.add(Appointment.fromFileString(line));
+            }
+            loadMs = (System.nanoTime() - began) / 1e6;
+            loadBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+            Appointment[] built = new Appointment[count];
+            before = threads.getThreadAllocatedBytes(thread);
+            began = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                built[i] = new Appointment("APP-1", "PAT-1", "DOC-1", times[i], "Routine checkup", STATUSES[i % STATUSES.length]);
+            }
+            constructMs = (System.nanoTime() - began) / 1e6;
+            constructBytes = threads.getThreadAllocatedBytes(thread) - before;
+
+            Appointment[] pending = new Appointment[count];
+            for (int i = 0; i < count; i++) {
+                pending[i] = new Appointment("APP-1", "PAT-1", "DOC-1", times[i], "Routine checkup");
+            }
+            before = threads.getThreadAllocatedBytes(thread);
+            began = System.nanoTime();
+            int applied = 0;
+            for (Appointment appointment : pending) {
+                if (appointment.acceptAppointment("DOC-1").isApplied()) applied++;
+                if (appointment.cancelAppointment("staff").isApplied()) applied++;
+            }
+            transitionMs = (System.nanoTime() - began) / 1e6;
+            transitionBytes = threads.getThreadAllocatedBytes(thread) - before;
+            if (applied != 2 * count) throw new IllegalStateException("Unexpected transition results: " + applied);
+        }
+
+        System.out.printf("%-12s %14s %14s %10s%n", "phase", "operations", "bytes/op", "ms");
+        System.out.printf("%-12s %14d %14.1f %10.1f%n", "load", count, loadBytes / (double) count, loadMs);
+        System.out.printf("%-12s %14d %14.1f %10.1f%n", "construct", count, constructBytes / (double) count, constructMs);
+        System.out.printf("%-12s %14d %14.1f %10.1f%n", "transition", 2L * count, transitionBytes / (2.0 * count), transitionMs);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hospital.audit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Data of a published event with its audit fields spelled out: who did it and which entities it touched.
+// toString() is the event's free-text description, so observers that only log the text (ActivityLogger) see
+// exactly what they saw before; AuditLogger stores the typed fields and the audit description.
+public class AuditEvent {
+    private final String actor; // Username, or null when nobody is logged in (e.g. a failed login has only a claimed name)
+    private final List<String> entityIds;
+    private final String description;
+    private final String auditDescription; // The description as the queryable audit trail keeps it
+
+    public AuditEvent(String actor, String description, String... entityIds) {
+        this(actor, Arrays.asList(entityIds), description);
+    }
+
+    public AuditEvent(String actor, Collection<String> entityIds, String description) {
+        this(actor, entityIds, description, description);
+    }
+
+    // Null and repeated entity IDs are dropped; the rest keep their order. auditDescription stands in for the
+    // description in the audit trail, for events whose text holds a secret such as a new account's password.
+    public AuditEvent(String actor, Collection<String> entityIds, String description, String auditDescription) {
+        this.actor = actor;
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(entityIds);
+        distinct.remove(null);
+        this.entityIds = Collections.unmodifiableList(new ArrayList<>(distinct));
+        this.description = description;
+        this.auditDescription = auditDescription;
+    }
+
+    public String getActor() { return actor; }
+    public List<String> getEntityIds() { return entityIds; }
+    public String getDescription() { return description; }
+    public String getAuditDescription() { return auditDescription; }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
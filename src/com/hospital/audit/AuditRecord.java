@@ -0,0 +1,38 @@
+package com.hospital.audit;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+// One stored audit record. The sequence number is its position in the audit log: records are numbered from 0 in
+// time order, so it doubles as a paging cursor.
+public class AuditRecord {
+    private final long sequence;
+    private final LocalDateTime timestamp;
+    private final String eventType;
+    private final String actor; // null if the event had none
+    private final List<String> entityIds;
+    private final String details;
+
+    AuditRecord(long sequence, LocalDateTime timestamp, String eventType, String actor, List<String> entityIds, String details) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.eventType = eventType;
+        this.actor = actor;
+        this.entityIds = Collections.unmodifiableList(entityIds);
+        this.details = details;
+    }
+
+    public long getSequence() { return sequence; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getEventType() { return eventType; }
+    public String getActor() { return actor; }
+    public List<String> getEntityIds() { return entityIds; }
+    public String getDetails() { return details; }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + eventType + (actor != null ? " by " + actor : "")
+                + (entityIds.isEmpty() ? "" : " " + entityIds) + " - " + details;
+    }
+}
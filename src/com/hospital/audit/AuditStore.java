@@ -0,0 +1,797 @@
+package com.hospital.audit;
+
+import com.hospital.repository.Page;
+import com.hospital.service.ActivityLogSegment;
+import com.hospital.util.FileSwap;
+import com.hospital.util.RecordFields;
+import com.hospital.util.Timestamps;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Structured audit trail: one record per published event with typed fields - time, event type, actor (username),
+// the IDs of the entities involved, and the free-text details - so questions like "all APPOINTMENT_CANCELLED by
+// staff X last week" are index lookups instead of a scan of the activity log text.
+//
+// Records are appended to audit_log.txt, one line each (fields escaped as in the data files):
+//   dateTime,eventType,actor,entityCount,entityId1,...,entityIdN,details
+// In memory each record is a row of primitive columns, as in ColumnarAppointmentStore:
+//   time                         - epoch millis of the local date-time (taken as UTC, like the other stores)
+//   event type, actor, entities  - int codes into dictionaries; a row may name any number of entities
+//   details                      - not held in memory: the row's byte offset and length in the file, read back
+//                                  only for the records a query returns
+// Rows are appended in time order (a clock that steps back is clamped to the last record's time), so a time range
+// is a row range found by binary search. Every event type, actor and entity ID also keeps the ascending list of its
+// rows. A query walks the shortest list among the fields it filters on, from the first row of its time range, and
+// checks the other fields in the columns. That is about 36 bytes per record plus 4 per indexed field value.
+//
+// Thread-safe: one read/write lock guards the table. Rows are never changed once written, so a query captures the
+// columns under the read lock and then streams without holding it; records appended later are not part of it.
+//
+// append() only queues the record: a writer thread writes the queue in batches, each with one write call, at least
+// every WRITE_INTERVAL_MILLIS, so a query sees a record up to that much later. A full queue makes append() wait.
+// Retention is applied when the store is opened (records past the limits are cut from the front of the file); a
+// store that stays open keeps every record appended to it until the next start.
+public class AuditStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int FIXED_FIELDS = 5; // All but the entity IDs
+    private static final int READ_CHUNK_BYTES = 1 << 20;
+    private static final int IMPORT_BATCH_BYTES = 1 << 16;
+    private static final int NO_ACTOR = -1;
+    private static final int WRITE_BATCH_RECORDS = 256;
+    private static final long WRITE_INTERVAL_MILLIS = 200;
+    private static final int MAX_PENDING_RECORDS = 8192;
+
+    // Pieces of the activity log text, for importing the history written before this store existed
+    private static final Pattern LEGACY_ACTOR = Pattern.compile("(?: by (?:Dr\\. |Staff )?(\\S+)$|^User: (\\S+)$)");
+    private static final Pattern LEGACY_ENTITY = Pattern.compile("(?:^|[ \\[,])(?:Appointment ID|Patient ID|Doctor ID|ID|EntityID): ([A-Za-z0-9_.-]+)");
+    private static final Pattern LEGACY_ENTITY_LIST = Pattern.compile("IDs: \\[([^\\]]*)\\]");
+    private static final Pattern LEGACY_PASSWORD = Pattern.compile(" \\(Password: [^)]*\\)"); // DOCTOR_USER_CREATED
+
+    private final Path file;
+    private FileChannel channel; // Replaced only while opening, when trimming the file
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Dictionary eventTypes = new Dictionary();
+    private Dictionary actors = new Dictionary();
+    private Dictionary entities = new Dictionary();
+
+    private long[] timeColumn = new long[INITIAL_CAPACITY];
+    private int[] typeColumn = new int[INITIAL_CAPACITY];
+    private int[] actorColumn = new int[INITIAL_CAPACITY];
+    private long[] offsetColumn = new long[INITIAL_CAPACITY];
+    private int[] lengthColumn = new int[INITIAL_CAPACITY];
+    private int[] entityStartColumn = new int[INITIAL_CAPACITY + 1]; // Row r's entities: entityCodes[start[r]..start[r + 1])
+    private int[] entityCodes = new int[INITIAL_CAPACITY];
+    private int size;
+    private long fileEnd;
+
+    private final Object pendingLock = new Object();
+    private final Object drainLock = new Object(); // Held while taking and writing a batch, so batches stay in order
+    private List<PendingRecord> pending = new ArrayList<>(); // Guarded by pendingLock
+    private boolean closed; // Guarded by pendingLock
+    private final Thread writerThread;
+
+    // Opens (or creates) the audit log and indexes every record in it.
+    public AuditStore(Path file) throws IOException {
+        this(file, 0, 0);
+    }
+
+    // As above, first dropping the records older than retentionMillis, then the oldest until the file fits in
+    // retentionBytes (0 = no limit), like the activity log retention.
+    public AuditStore(Path file, long retentionMillis, long retentionBytes) throws IOException {
+        this.file = file;
+        this.channel = open(file);
+        load();
+        trim(retentionMillis, retentionBytes);
+        this.writerThread = new Thread(this::writeLoop, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "audit-log-shutdown"));
+    }
+
+    // Queues an event as happening now; the writer thread stores it. After close() it is stored right away.
+    public void append(String eventType, String actor, List<String> entityIds, String details) {
+        PendingRecord record = new PendingRecord(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), eventType, actor, entityIds, details);
+        boolean late;
+        synchronized (pendingLock) {
+            while (pending.size() >= MAX_PENDING_RECORDS && !closed) {
+                try {
+                    pendingLock.wait(); // Backpressure: the writer is behind
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            pending.add(record);
+            if (pending.size() == WRITE_BATCH_RECORDS) {
+                pendingLock.notifyAll(); // A full batch is waiting, no need to sit out the interval
+            }
+            late = closed;
+        }
+        if (late) {
+            flush();
+        }
+    }
+
+    // Writes what is queued and stops the writer thread. Also run from a shutdown hook.
+    public void close() {
+        synchronized (pendingLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingLock.notifyAll();
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // Records with every given field (null = any) and from <= time <= to (null = open-ended), oldest first.
+    // The stream is lazy: each record's details are read from the file as it is consumed.
+    public Stream<AuditRecord> query(String eventType, String actor, String entityId, LocalDateTime from, LocalDateTime to) {
+        Plan plan = plan(eventType, actor, entityId, from, to, 0);
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<AuditRecord>(plan.estimate(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            @Override
+            public boolean tryAdvance(Consumer<? super AuditRecord> action) {
+                int row = plan.nextMatch();
+                if (row < 0) {
+                    return false;
+                }
+                action.accept(plan.materialize(row));
+                return true;
+            }
+        }, false);
+    }
+
+    // Number of matching records, without reading any of them. Filtering on one field alone is a pair of binary
+    // searches; otherwise the matches are counted in the columns.
+    public long count(String eventType, String actor, String entityId, LocalDateTime from, LocalDateTime to) {
+        Plan plan = plan(eventType, actor, entityId, from, to, 0);
+        if (plan.onlyDriverFilters()) {
+            return plan.estimate();
+        }
+        long count = 0;
+        while (plan.nextMatch() >= 0) {
+            count++;
+        }
+        return count;
+    }
+
+    // One page of query() results. The cursor is a position in the audit log, so pages stay stable while records
+    // are appended.
+    public Page<AuditRecord> queryPage(String eventType, String actor, String entityId, LocalDateTime from, LocalDateTime to,
+                                       String cursor, int pageSize) {
+        Plan plan = plan(eventType, actor, entityId, from, to, Page.positionOf(cursor));
+        List<AuditRecord> items = new ArrayList<>(Math.min(pageSize, 256));
+        int row = -1;
+        while (items.size() < pageSize && (row = plan.nextMatch()) >= 0) {
+            items.add(plan.materialize(row));
+        }
+        boolean more = row >= 0 && plan.nextMatch() >= 0;
+        return Page.of(items, more ? row + 1 : -1);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Fills an empty store from the activity log in dataDir (compressed segments, oldest first, then the active
+    // file), so history from before the audit trail existed can be queried too. The actor and entity IDs are
+    // recovered from the text as well as the old messages allow. Returns the number of records imported.
+    public int importActivityLog(Path dataDir) {
+        lock.writeLock().lock();
+        try {
+            if (size > 0) {
+                return 0;
+            }
+            List<BufferedReader> sources = new ArrayList<>();
+            int imported = 0;
+            try {
+                for (ActivityLogSegment segment : ActivityLogSegment.list(dataDir)) {
+                    sources.add(segment.openReader());
+                }
+                Path active = ActivityLogSegment.activeFile(dataDir);
+                if (Files.exists(active)) {
+                    sources.add(Files.newBufferedReader(active, StandardCharsets.UTF_8));
+                }
+                Batch batch = new Batch();
+                for (BufferedReader source : sources) {
+                    String line;
+                    while ((line = source.readLine()) != null) {
+                        if (importLine(batch, line)) {
+                            imported++;
+                        }
+                        if (batch.bytes.size() >= IMPORT_BATCH_BYTES && !batch.write()) {
+                            return imported;
+                        }
+                    }
+                }
+                batch.write();
+            } catch (IOException e) {
+                System.err.println("Error importing the activity log into " + file + ": " + e.getMessage());
+            } finally {
+                for (BufferedReader source : sources) {
+                    try {
+                        source.close();
+                    } catch (IOException ignored) {
+                        // Read-only
+                    }
+                }
+            }
+            return imported;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean importLine(Batch batch, String line) {
+        LocalDateTime time = ActivityLogSegment.timestampOf(line);
+        int data = line.indexOf(" | Data: ");
+        if (time == null || data < 0) {
+            return false;
+        }
+        String details = LEGACY_PASSWORD.matcher(line.substring(data + " | Data: ".length())).replaceAll("");
+        String actor = null;
+        Matcher actorMatch = LEGACY_ACTOR.matcher(details);
+        if (actorMatch.find()) {
+            actor = actorMatch.group(1) != null ? actorMatch.group(1) : actorMatch.group(2);
+        }
+        List<String> entityIds = new ArrayList<>();
+        Matcher list = LEGACY_ENTITY_LIST.matcher(details);
+        if (list.find()) {
+            for (String id : list.group(1).split(", ")) {
+                if (!id.isEmpty()) entityIds.add(id);
+            }
+        }
+        Matcher entity = LEGACY_ENTITY.matcher(details);
+        while (entity.find()) {
+            if (!entityIds.contains(entity.group(1))) entityIds.add(entity.group(1));
+        }
+        batch.add(time, ActivityLogSegment.eventTypeOf(line), actor, entityIds, details);
+        return true;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (pendingLock) {
+                if (pending.size() < WRITE_BATCH_RECORDS && !closed) {
+                    try {
+                        pendingLock.wait(WRITE_INTERVAL_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return; // close() writes the rest
+                }
+            }
+            flush();
+        }
+    }
+
+    // Writes and indexes every queued record.
+    private void flush() {
+        synchronized (drainLock) {
+            List<PendingRecord> records;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                records = pending;
+                pending = new ArrayList<>();
+                pendingLock.notifyAll(); // Room for appenders waiting on a full queue
+            }
+            lock.writeLock().lock();
+            try {
+                Batch batch = new Batch();
+                for (PendingRecord record : records) {
+                    batch.add(record.time, record.eventType, record.actor, record.entityIds, record.details);
+                }
+                batch.write();
+            } catch (RuntimeException e) { // Keep the writer thread alive
+                System.err.println("Error writing " + records.size() + " records to audit log " + file + ": " + e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Cuts the records past the retention limits from the front of the file, then indexes the rest again.
+    private void trim(long retentionMillis, long retentionBytes) throws IOException {
+        int first = retentionMillis > 0 ? firstRowAtOrAfter(toMillis(LocalDateTime.now()) - retentionMillis) : 0;
+        if (retentionBytes > 0 && fileEnd > retentionBytes) {
+            first = Math.max(first, firstRowAtOrAfterOffset(fileEnd - retentionBytes));
+        }
+        if (first == 0) {
+            return;
+        }
+        Path tmp = FileSwap.tempFileFor(file);
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = first < size ? offsetColumn[first] : fileEnd;
+                while (position < fileEnd) {
+                    position += channel.transferTo(position, fileEnd - position, out);
+                }
+                out.force(false);
+            }
+            channel.close();
+            FileSwap.moveReplacing(tmp, file);
+            System.out.println("INFO: Dropped " + first + " audit records past the retention limits from " + file + ".");
+        } catch (IOException e) {
+            System.err.println("Error trimming audit log " + file + ": " + e.getMessage());
+            Files.deleteIfExists(tmp);
+        }
+        if (!channel.isOpen()) { // The trimmed file, or the old one if it could not be replaced
+            channel = open(file);
+            clear();
+            load();
+        }
+    }
+
+    private void clear() {
+        eventTypes = new Dictionary();
+        actors = new Dictionary();
+        entities = new Dictionary();
+        timeColumn = new long[INITIAL_CAPACITY];
+        typeColumn = new int[INITIAL_CAPACITY];
+        actorColumn = new int[INITIAL_CAPACITY];
+        offsetColumn = new long[INITIAL_CAPACITY];
+        lengthColumn = new int[INITIAL_CAPACITY];
+        entityStartColumn = new int[INITIAL_CAPACITY + 1];
+        entityCodes = new int[INITIAL_CAPACITY];
+        size = 0;
+        fileEnd = 0;
+    }
+
+    // Reads the whole file, indexing every well-formed line. A line cut short by a crash (no line break) is cut off.
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_BYTES);
+        byte[] carry = new byte[0]; // Start of a line continued in the next chunk
+        long lineStart = 0;
+        long position = 0;
+        int skipped = 0;
+        while (position < fileSize) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) {
+                break;
+            }
+            position += read;
+            byte[] bytes = chunk.array();
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                String line;
+                if (carry.length > 0) {
+                    byte[] whole = Arrays.copyOf(carry, carry.length + i - start);
+                    System.arraycopy(bytes, start, whole, carry.length, i - start);
+                    line = new String(whole, StandardCharsets.UTF_8);
+                    carry = new byte[0];
+                } else {
+                    line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+                }
+                int length = (int) (position - read + i - lineStart);
+                if (!loadLine(line, lineStart, length)) {
+                    skipped++;
+                }
+                lineStart += length + 1;
+                start = i + 1;
+            }
+            if (start < read) {
+                byte[] rest = new byte[carry.length + read - start];
+                System.arraycopy(carry, 0, rest, 0, carry.length);
+                System.arraycopy(bytes, start, rest, carry.length, read - start);
+                carry = rest;
+            }
+        }
+        if (lineStart < fileSize) {
+            System.out.println("INFO: Dropping an incomplete last record (" + (fileSize - lineStart) + " bytes) from " + file + ".");
+            channel.truncate(lineStart);
+        }
+        if (skipped > 0) {
+            System.err.println("Skipped " + skipped + " malformed records in " + file + ".");
+        }
+        fileEnd = lineStart;
+    }
+
+    private boolean loadLine(String line, long offset, int length) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        try {
+            String countField = RecordFields.field(line, 3);
+            int count = countField == null ? -1 : Integer.parseInt(countField);
+            String[] fields = count < 0 ? null : RecordFields.split(line, FIXED_FIELDS + count);
+            if (fields == null) {
+                return false;
+            }
+            long millis = toMillis(Timestamps.parse(fields[0]));
+            addRow(millis, fields[1], fields[2].isEmpty() ? null : fields[2], Arrays.asList(fields).subList(4, 4 + count), offset, length);
+            return true;
+        } catch (RuntimeException e) { // Bad timestamp or count
+            return false;
+        }
+    }
+
+    private void addRow(long millis, String eventType, String actor, List<String> entityIds, long offset, int length) {
+        if (size > 0 && millis < timeColumn[size - 1]) {
+            millis = timeColumn[size - 1]; // Keep the time column sorted
+        }
+        if (size == timeColumn.length) {
+            int capacity = size + (size >> 1);
+            timeColumn = Arrays.copyOf(timeColumn, capacity);
+            typeColumn = Arrays.copyOf(typeColumn, capacity);
+            actorColumn = Arrays.copyOf(actorColumn, capacity);
+            offsetColumn = Arrays.copyOf(offsetColumn, capacity);
+            lengthColumn = Arrays.copyOf(lengthColumn, capacity);
+            entityStartColumn = Arrays.copyOf(entityStartColumn, capacity + 1);
+        }
+        int row = size;
+        timeColumn[row] = millis;
+        typeColumn[row] = eventTypes.encode(eventType, row);
+        actorColumn[row] = actor == null ? NO_ACTOR : actors.encode(actor, row);
+        offsetColumn[row] = offset;
+        lengthColumn[row] = length;
+        int entityEnd = entityStartColumn[row];
+        if (entityEnd + entityIds.size() > entityCodes.length) {
+            entityCodes = Arrays.copyOf(entityCodes, Math.max(entityCodes.length + (entityCodes.length >> 1), entityEnd + entityIds.size()));
+        }
+        for (String entityId : entityIds) {
+            entityCodes[entityEnd++] = entities.encode(entityId, row);
+        }
+        entityStartColumn[row + 1] = entityEnd;
+        size = row + 1; // Published last: a row below size is complete
+    }
+
+    // Captures what a query needs under the read lock; the plan then runs without it.
+    private Plan plan(String eventType, String actor, String entityId, LocalDateTime from, LocalDateTime to, int firstRow) {
+        lock.readLock().lock();
+        try {
+            Plan plan = new Plan();
+            plan.times = timeColumn;
+            plan.types = typeColumn;
+            plan.actors = actorColumn;
+            plan.offsets = offsetColumn;
+            plan.lengths = lengthColumn;
+            plan.entityStarts = entityStartColumn;
+            plan.entityCodes = entityCodes;
+            plan.typeNames = eventTypes.values;
+            plan.actorNames = actors.values;
+            plan.entityNames = entities.values;
+            plan.low = Math.max(firstRow, from == null ? 0 : firstRowAtOrAfter(toMillisRoundedUp(from)));
+            plan.high = to == null ? size : firstRowAtOrAfter(saturatedIncrement(toMillis(to)));
+            plan.type = eventType == null ? Plan.ANY : eventTypes.codeOf(eventType);
+            plan.actor = actor == null ? Plan.ANY : actors.codeOf(actor);
+            plan.entity = entityId == null ? Plan.ANY : entities.codeOf(entityId);
+            if (plan.type == Dictionary.UNKNOWN || plan.actor == Dictionary.UNKNOWN || plan.entity == Dictionary.UNKNOWN
+                    || plan.low >= plan.high) {
+                plan.high = plan.low; // Nothing can match
+                return plan;
+            }
+            // Drive by the shortest posting list within the time range; the row range itself if nothing is filtered
+            plan.cursor = plan.low;
+            plan.end = plan.high;
+            long best = plan.high - plan.low;
+            IntList[] candidates = {
+                    plan.type >= 0 ? eventTypes.rowsOf(plan.type) : null,
+                    plan.actor >= 0 ? actors.rowsOf(plan.actor) : null,
+                    plan.entity >= 0 ? entities.rowsOf(plan.entity) : null};
+            for (int field = 0; field < candidates.length; field++) {
+                IntList rows = candidates[field];
+                if (rows == null) continue;
+                int first = rows.lowerBound(plan.low);
+                int last = rows.lowerBound(plan.high);
+                if (plan.driver == null || last - first < best) {
+                    plan.driver = rows.values;
+                    plan.driverField = field;
+                    plan.cursor = first;
+                    plan.end = last;
+                    best = last - first;
+                }
+            }
+            return plan;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int firstRowAtOrAfter(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeColumn[mid] < millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int firstRowAtOrAfterOffset(long offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (offsetColumn[mid] < offset) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Saturating, so LocalDateTime.MIN and MAX work as open bounds.
+    private static long toMillis(LocalDateTime time) {
+        try {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), 1000L), time.getNano() / 1_000_000);
+        } catch (ArithmeticException e) {
+            return time.getYear() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    // Times are stored to the millisecond, so a lower bound inside a millisecond starts at the next one.
+    private static long toMillisRoundedUp(LocalDateTime time) {
+        long millis = toMillis(time);
+        return time.getNano() % 1_000_000 == 0 ? millis : saturatedIncrement(millis);
+    }
+
+    private static long saturatedIncrement(long value) {
+        return value == Long.MAX_VALUE ? value : value + 1;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static final class PendingRecord {
+        final LocalDateTime time;
+        final String eventType;
+        final String actor;
+        final List<String> entityIds;
+        final String details;
+
+        PendingRecord(LocalDateTime time, String eventType, String actor, List<String> entityIds, String details) {
+            this.time = time;
+            this.eventType = eventType;
+            this.actor = actor;
+            this.entityIds = entityIds;
+            this.details = details;
+        }
+    }
+
+    // Records waiting to be written with one write call; they are indexed once the write succeeded.
+    private final class Batch {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        private final List<Object[]> rows = new ArrayList<>(); // {millis, eventType, actor, entityIds, offset, length}
+        private long lastMillis = size > 0 ? timeColumn[size - 1] : Long.MIN_VALUE;
+
+        void add(LocalDateTime time, String eventType, String actor, List<String> entityIds, String details) {
+            long millis = Math.max(toMillis(time), lastMillis);
+            lastMillis = millis;
+            String[] fields = new String[FIXED_FIELDS + entityIds.size()];
+            fields[0] = Timestamps.format(fromMillis(millis));
+            fields[1] = eventType;
+            fields[2] = actor == null ? "" : actor;
+            fields[3] = String.valueOf(entityIds.size());
+            for (int i = 0; i < entityIds.size(); i++) {
+                fields[4 + i] = entityIds.get(i);
+            }
+            fields[fields.length - 1] = details;
+            String line = RecordFields.join(fields);
+            byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+            rows.add(new Object[]{millis, eventType, actor, entityIds, fileEnd + bytes.size(), encoded.length});
+            bytes.write(encoded, 0, encoded.length);
+            bytes.write('\n');
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean write() {
+            if (rows.isEmpty()) {
+                return true;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            try {
+                long position = fileEnd;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing to audit log " + file + ": " + e.getMessage());
+                try {
+                    channel.truncate(fileEnd); // Drop a partly written batch
+                } catch (IOException ignored) {
+                    // Cut off on the next load, unless more records follow it
+                }
+                rows.clear();
+                bytes.reset();
+                return false;
+            }
+            for (Object[] row : rows) {
+                addRow((Long) row[0], (String) row[1], (String) row[2], (List<String>) row[3], (Long) row[4], (Integer) row[5]);
+            }
+            fileEnd += bytes.size();
+            rows.clear();
+            bytes.reset();
+            return true;
+        }
+    }
+
+    // Query state over columns captured at planning time. Walks either the driving posting list
+    // (driver[cursor..end)) or, without one, the rows cursor..end.
+    private final class Plan {
+        static final int ANY = -1;
+
+        long[] times;
+        int[] types;
+        int[] actors;
+        long[] offsets;
+        int[] lengths;
+        int[] entityStarts;
+        int[] entityCodes;
+        String[] typeNames;
+        String[] actorNames;
+        String[] entityNames;
+        int low;
+        int high;
+        int type;
+        int actor;
+        int entity;
+        int[] driver;
+        int driverField = -1; // 0 = event type, 1 = actor, 2 = entity
+        int cursor;
+        int end;
+
+        long estimate() {
+            return Math.max(0, end - cursor);
+        }
+
+        // True when the driving list is the only filter, so every row it yields matches.
+        boolean onlyDriverFilters() {
+            int filters = (type != ANY ? 1 : 0) + (actor != ANY ? 1 : 0) + (entity != ANY ? 1 : 0);
+            return filters == 0 || (filters == 1 && driver != null);
+        }
+
+        // Next matching row, or -1 when there are no more.
+        int nextMatch() {
+            while (cursor < end) {
+                int row = driver != null ? driver[cursor] : cursor;
+                cursor++;
+                if ((type == ANY || driverField == 0 || types[row] == type)
+                        && (actor == ANY || driverField == 1 || actors[row] == actor)
+                        && (entity == ANY || driverField == 2 || hasEntity(row))) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        private boolean hasEntity(int row) {
+            for (int i = entityStarts[row]; i < entityStarts[row + 1]; i++) {
+                if (entityCodes[i] == entity) return true;
+            }
+            return false;
+        }
+
+        AuditRecord materialize(int row) {
+            List<String> ids = new ArrayList<>(entityStarts[row + 1] - entityStarts[row]);
+            for (int i = entityStarts[row]; i < entityStarts[row + 1]; i++) {
+                ids.add(entityNames[entityCodes[i]]);
+            }
+            return new AuditRecord(row, fromMillis(times[row]), typeNames[types[row]],
+                    actors[row] == NO_ACTOR ? null : actorNames[actors[row]], ids, readDetails(offsets[row], lengths[row], ids.size()));
+        }
+    }
+
+    private String readDetails(long offset, int length, int entityCount) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) break;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading audit log " + file + ": " + e.getMessage());
+            return "";
+        }
+        String line = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        String details = RecordFields.field(line, FIXED_FIELDS - 1 + entityCount);
+        return details == null ? "" : details;
+    }
+
+    // Dense int code per distinct value, each with the ascending rows holding it (its posting list).
+    private static class Dictionary {
+        static final int UNKNOWN = -2;
+
+        private final Map<String, IntList> rows = new HashMap<>();
+        private String[] values = new String[16]; // Grown by copying, so a captured array stays valid for its codes
+        private int size;
+
+        int encode(String value, int row) {
+            IntList list = rows.get(value);
+            if (list == null) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size] = value;
+                list = new IntList(size++);
+                rows.put(value, list);
+            }
+            if (list.size == 0 || list.values[list.size - 1] != row) { // A row naming an entity twice is listed once
+                list.add(row);
+            }
+            return list.code;
+        }
+
+        int codeOf(String value) {
+            IntList list = rows.get(value);
+            return list == null ? UNKNOWN : list.code;
+        }
+
+        IntList rowsOf(int code) {
+            return rows.get(values[code]);
+        }
+    }
+
+    private static class IntList {
+        private final int code;
+        private int[] values = new int[2]; // Most entities appear in a handful of events
+        private int size;
+
+        IntList(int code) {
+            this.code = code;
+        }
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        // Index of the first value >= key (values ascend).
+        int lowerBound(int key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
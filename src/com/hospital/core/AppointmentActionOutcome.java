@@ -0,0 +1,9 @@
+package com.hospital.core;
+
+// Per-appointment result of a batch accept/reject/cancel.
+public enum AppointmentActionOutcome {
+    APPLIED,
+    NOT_FOUND,
+    NOT_ASSIGNED_TO_DOCTOR,
+    INVALID_STATE // The appointment's current status does not allow the action
+}
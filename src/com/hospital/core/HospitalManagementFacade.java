@@ -1,273 +1,925 @@
 package com.hospital.core;
 
+import com.hospital.audit.AuditEvent;
+import com.hospital.audit.AuditRecord;
+import com.hospital.audit.AuditStore;
 import com.hospital.factory.EntityFactory;
 import com.hospital.factory.HospitalEntityFactory;
+import com.hospital.metrics.Counter;
+import com.hospital.metrics.Metrics;
 import com.hospital.model.*; // All models
+import com.hospital.observer.AuditLogger;
 import com.hospital.observer.EventManager;
+import com.hospital.observer.ObserverQueueStats;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.InMemoryRepository;
+import com.hospital.repository.Page;
+import com.hospital.repository.PatientRepository;
+import com.hospital.security.CredentialCache;
+import com.hospital.service.CsvImporter;
 import com.hospital.service.FileManager;
+import com.hospital.service.ImportReport;
+import com.hospital.state.TransitionResult;
+import com.hospital.util.Threads;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Thread-safe: one facade serves many concurrent sessions (terminals, doctors, HTTP clients).
+// Appointment changes lock only the stripe of the appointment's doctor, so work for unrelated doctors never
+// contends; patient/doctor/user registrations serialise only on rewriting their own data file.
 public class HospitalManagementFacade {
+    // Load the data files concurrently at startup; -Dhospital.startup.parallel=false loads them one after another.
+    private static final boolean PARALLEL_STARTUP = Boolean.parseBoolean(System.getProperty("hospital.startup.parallel", "true"));
+    // Sessions unused for this long are closed (0 = never); idle ones are also swept on login, at most once a minute
+    private static final long SESSION_IDLE_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(Long.getLong("hospital.session.idleTimeoutMinutes", 30));
+    private static final long SESSION_SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // Largest page a listing returns, whatever the caller asks for
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Bulk import columns; a first CSV line with exactly these names is skipped as a header
+    private static final String[] PATIENT_CSV_COLUMNS = {"name", "contactNumber", "age", "gender", "address"};
+    private static final String[] DOCTOR_CSV_COLUMNS = {"name", "contactNumber", "specialization", "department"};
+
+    // Successful and failed logins (recorded only with -Dhospital.metrics.enabled=true)
+    private static final Counter LOGIN_SUCCESSES = Metrics.counter("facade.login.success");
+    private static final Counter LOGIN_FAILURES = Metrics.counter("facade.login.failure");
+
     private final EntityFactory entityFactory;
     private final FileManager fileManager;
     private final EventManager eventManager;
+    private final CredentialCache credentialCache;
+
+    // ID-indexed tables, kept in file order
+    private final PatientRepository patients; // Also searchable by name and contact number
+    private final InMemoryRepository<Doctor> doctors;
+    private final AppointmentRepository appointments; // Also indexed by (doctorId, status) and per patient by time
+    private final InMemoryRepository<User> users; // Keyed by username
+    private final AuditStore auditStore; // Every published event, by type, actor, entity and time; null if it could not be opened
+
+    // Held while taking a snapshot and rewriting the matching file, so the last write always has every record
+    private final Object patientsFileLock = new Object();
+    private final Object doctorsFileLock = new Object();
+    private final Object usersFileLock = new Object();
 
-    private List<Patient> patients;
-    private List<Doctor> doctors;
-    private List<Appointment> appointments;
-    private List<User> users;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // Open sessions by token
+    private final AtomicLong lastSessionSweep = new AtomicLong(System.nanoTime());
+    private volatile Session currentSession; // Session of the single-operator console API below
 
-    private User currentUser; // For session management
+    // The facade the application runs: with -Dhospital.metrics.enabled=true every operation is timed
+    public static HospitalManagementFacade create(EventManager eventManager) {
+        return Metrics.ENABLED ? new TimedHospitalManagementFacade(eventManager) : new HospitalManagementFacade(eventManager);
+    }
 
     public HospitalManagementFacade(EventManager eventManager) {
         this.entityFactory = new HospitalEntityFactory();
         this.fileManager = FileManager.getInstance();
         this.eventManager = eventManager;
 
-        this.patients = fileManager.loadPatients();
-        this.doctors = fileManager.loadDoctors();
-        this.appointments = fileManager.loadAppointments();
-        this.users = fileManager.loadUsers(); // Load users
-        this.currentUser = null;
+        if (PARALLEL_STARTUP) {
+            // The data files are independent: load each one and build its indexes on its own thread.
+            ExecutorService loaders = Threads.newPerTaskExecutor("startup-load");
+            try {
+                long start = System.nanoTime();
+                CompletableFuture<PatientRepository> loadedPatients = CompletableFuture.supplyAsync(
+                        () -> new PatientRepository(fileManager.loadPatients()), loaders);
+                CompletableFuture<InMemoryRepository<Doctor>> loadedDoctors = CompletableFuture.supplyAsync(
+                        () -> new InMemoryRepository<>(Doctor::getId, fileManager.loadDoctors()), loaders);
+                CompletableFuture<AppointmentRepository> loadedAppointments = CompletableFuture.supplyAsync(
+                        () -> new AppointmentRepository(fileManager.loadAppointments()), loaders);
+                CompletableFuture<InMemoryRepository<User>> loadedUsers = CompletableFuture.supplyAsync(
+                        () -> new InMemoryRepository<>(User::getUsername, fileManager.loadUsers()), loaders);
+                CompletableFuture<AuditStore> loadedAudit = CompletableFuture.supplyAsync(this::openAuditStore, loaders);
+                this.patients = loadedPatients.join();
+                this.doctors = loadedDoctors.join();
+                this.appointments = loadedAppointments.join();
+                this.users = loadedUsers.join();
+                this.auditStore = loadedAudit.join();
+                System.out.println("INFO: Loaded all data files in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            } finally {
+                loaders.shutdown();
+            }
+        } else {
+            this.patients = new PatientRepository(fileManager.loadPatients());
+            this.doctors = new InMemoryRepository<>(Doctor::getId, fileManager.loadDoctors());
+            this.appointments = new AppointmentRepository(fileManager.loadAppointments());
+            this.users = new InMemoryRepository<>(User::getUsername, fileManager.loadUsers()); // Load users
+            this.auditStore = openAuditStore();
+        }
+        if (auditStore != null) {
+            eventManager.registerObserver(new AuditLogger(auditStore));
+        }
+        this.credentialCache = new CredentialCache(Integer.getInteger("hospital.security.credentialCacheSize", 1024));
+        // Events waiting in the observers' queues (always 0 with SYNC dispatch)
+        Metrics.gauge("events.queueDepth", () -> eventManager.getQueueStats().stream().mapToLong(ObserverQueueStats::getQueueDepth).sum());
+    }
+
+    // A new audit log starts out with the history in the activity log. Both follow the same retention limits.
+    private AuditStore openAuditStore() {
+        Path file = fileManager.getAuditLogPath();
+        boolean created = !Files.exists(file);
+        try {
+            AuditStore store = new AuditStore(file, fileManager.getLogRetentionMillis(), fileManager.getLogRetentionBytes());
+            if (created) {
+                int imported = store.importActivityLog(fileManager.getDataDirectory());
+                if (imported > 0) {
+                    System.out.println("INFO: Imported " + imported + " activity log records into " + file + ".");
+                }
+            }
+            return store;
+        } catch (IOException e) {
+            System.err.println("Error opening audit log " + file + ": " + e.getMessage());
+            return null;
+        }
     }
 
-    // --- Authentication ---
-    public boolean login(String username, String password) {
-        Optional<User> userOpt = users.stream()
-                                      .filter(u -> u.getUsername().equals(username) && u.getPassword().equals(password))
-                                      .findFirst();
+    // --- Sessions ---
+    public Session openSession(String username, String password) {
+        Optional<User> userOpt = users.findById(username)
+                                      .filter(u -> credentialCache.verify(u, password));
+        sweepIdleSessions();
         if (userOpt.isPresent()) {
-            this.currentUser = userOpt.get();
-            eventManager.publishEvent("LOGIN_SUCCESS", "User: " + username);
-            return true;
+            Session session = new Session(userOpt.get());
+            sessions.put(session.getToken(), session);
+            LOGIN_SUCCESSES.increment();
+            eventManager.publishEvent("LOGIN_SUCCESS", new AuditEvent(username, "User: " + username));
+            return session;
         }
-        eventManager.publishEvent("LOGIN_FAILURE", "User: " + username);
-        return false;
+        LOGIN_FAILURES.increment();
+        eventManager.publishEvent("LOGIN_FAILURE", new AuditEvent(null, "User: " + username)); // Only a claimed name
+        return null;
     }
 
-    public void logout() {
-        if (currentUser != null) {
-            eventManager.publishEvent("LOGOUT", "User: " + currentUser.getUsername());
-            this.currentUser = null;
+    public void closeSession(Session session) {
+        if (session != null && sessions.remove(session.getToken()) != null) {
+            eventManager.publishEvent("LOGOUT", new AuditEvent(session.getUser().getUsername(), "User: " + session.getUser().getUsername()));
         }
     }
 
-    public User getCurrentUser() {
-        return currentUser;
+    public Optional<Session> findSession(String token) {
+        return token == null ? Optional.empty() : Optional.ofNullable(liveSession(token));
     }
 
-    public Role getCurrentUserRole() {
-        return (currentUser != null) ? currentUser.getRole() : null;
+    // --- Utility to check for a live session ---
+    private boolean isLoggedIn(Session session) {
+        return session != null && liveSession(session.getToken()) == session;
+    }
+
+    // The open session with this token, or null. A lookup counts as a use; a session idle past the timeout is
+    // closed instead.
+    private Session liveSession(String token) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (SESSION_IDLE_TIMEOUT_NANOS > 0 && session.idleNanos() > SESSION_IDLE_TIMEOUT_NANOS) {
+            expireSession(session);
+            return null;
+        }
+        session.touch();
+        return session;
+    }
+
+    // Sessions that are never used again (no logout) would otherwise stay open for the life of the process.
+    private void sweepIdleSessions() {
+        long now = System.nanoTime();
+        long last = lastSessionSweep.get();
+        if (SESSION_IDLE_TIMEOUT_NANOS <= 0 || now - last < SESSION_SWEEP_INTERVAL_NANOS || !lastSessionSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (Session session : sessions.values()) {
+            if (session.idleNanos() > SESSION_IDLE_TIMEOUT_NANOS) {
+                expireSession(session);
+            }
+        }
     }
-    
+
+    private void expireSession(Session session) {
+        if (sessions.remove(session.getToken(), session)) {
+            String username = session.getUser().getUsername();
+            eventManager.publishEvent("SESSION_EXPIRED", new AuditEvent(username, "User: " + username));
+        }
+    }
+
     // --- Utility to check staff role ---
-    private boolean isStaff() {
-        return currentUser != null && currentUser.getRole() == Role.STAFF;
+    private boolean isStaff(Session session) {
+        return isLoggedIn(session) && session.getRole() == Role.STAFF;
     }
 
     // --- Utility to check doctor role ---
-    private boolean isDoctor() {
-        return currentUser != null && currentUser.getRole() == Role.DOCTOR;
+    private boolean isDoctor(Session session) {
+        return isLoggedIn(session) && session.getRole() == Role.DOCTOR;
     }
-    
-    private boolean isAuthorizedDoctor(String doctorId) {
-        return isDoctor() && currentUser.getEntityId() != null && currentUser.getEntityId().equals(doctorId);
+
+    private boolean isAuthorizedDoctor(Session session, String doctorId) {
+        return isDoctor(session) && session.getUser().getEntityId() != null && session.getUser().getEntityId().equals(doctorId);
     }
 
 
     // --- Patient Operations (Staff) ---
-    public Patient registerNewPatient(String name, String contactNumber, int age, String gender, String address) {
-        if (!isStaff()) {
+    public Patient registerNewPatient(Session session, String name, String contactNumber, int age, String gender, String address) {
+        if (!isStaff(session)) {
             System.err.println("Access Denied: Only STAFF can register patients.");
             return null;
         }
-        String patientId = "PAT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String patientId = newId("PAT-", patients);
         Patient patient = entityFactory.createPatient(patientId, name, contactNumber, age, gender, address);
         patients.add(patient);
-        fileManager.savePatients(patients);
-        eventManager.publishEvent("PATIENT_REGISTERED", patient + " by " + currentUser.getUsername());
+        synchronized (patientsFileLock) {
+            fileManager.savePatients(patients.findAll());
+        }
+        eventManager.publishEvent("PATIENT_REGISTERED", new AuditEvent(session.getUser().getUsername(),
+                patient + " by " + session.getUser().getUsername(), patient.getId()));
         return patient;
     }
 
-    public List<Patient> getAllPatients() {
-        if (currentUser == null) {
+    public List<Patient> getAllPatients(Session session) {
+        if (!isLoggedIn(session)) {
              System.err.println("Access Denied: Please login.");
              return new ArrayList<>();
         }
         // Both staff and doctors can view patients
-        return new ArrayList<>(patients);
+        return patients.findAll();
     }
 
-    public Optional<Patient> findPatientById(String patientId) {
-         if (currentUser == null) {
+    // Paged listing in registration order: pass null for the first page, then the previous page's next cursor.
+    public Page<Patient> getPatientsPage(Session session, String cursor, int pageSize) {
+        if (!isLoggedIn(session)) {
+             System.err.println("Access Denied: Please login.");
+             return Page.empty();
+        }
+        return findPage(patients, cursor, pageSize);
+    }
+
+    public Optional<Patient> findPatientById(Session session, String patientId) {
+        if (!isLoggedIn(session)) {
              System.err.println("Access Denied: Please login.");
              return Optional.empty();
         }
-        return patients.stream().filter(p -> p.getId().equals(patientId)).findFirst();
+        return patients.findById(patientId);
+    }
+
+    // Name words and contact-number prefixes, tolerating small typos; best matches first, at most limit (capped).
+    public List<Patient> searchPatients(Session session, String query, int limit) {
+        if (!isLoggedIn(session)) {
+             System.err.println("Access Denied: Please login.");
+             return new ArrayList<>();
+        }
+        return patients.search(query, Math.min(limit, MAX_PAGE_SIZE));
     }
 
     // --- Doctor Operations (Staff) ---
-    public Doctor addNewDoctor(String name, String contactNumber, String specialization, String department) {
-        if (!isStaff()) {
+    public Doctor addNewDoctor(Session session, String name, String contactNumber, String specialization, String department) {
+        if (!isStaff(session)) {
             System.err.println("Access Denied: Only STAFF can add doctors.");
             return null;
         }
-        String doctorId = "DOC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String doctorId = newId("DOC-", doctors);
         Doctor doctor = entityFactory.createDoctor(doctorId, name, contactNumber, specialization, department);
         doctors.add(doctor);
-        fileManager.saveDoctors(doctors);
-        
+        synchronized (doctorsFileLock) {
+            fileManager.saveDoctors(doctors.findAll());
+        }
+
         // Also add a corresponding user for this doctor for login (simplified)
         // In a real system, user creation might be a separate, more secure process.
-        String username = name.toLowerCase().replaceAll("\\s+", "") + doctorId.substring(4, 7); // e.g., johnsmithSAM
-        String defaultPassword = "doctor"+doctorId.substring(4,7); // e.g., doctorSAM
-        User doctorUser = new User(username, defaultPassword, Role.DOCTOR, doctorId);
-        if(users.stream().noneMatch(u -> u.getUsername().equals(username))) {
-            users.add(doctorUser);
-            fileManager.saveUsers(users);
-             eventManager.publishEvent("DOCTOR_USER_CREATED", doctorUser + " (Password: " + defaultPassword +")");
-        }
-       
-        eventManager.publishEvent("DOCTOR_ADDED", doctor + " by " + currentUser.getUsername());
+        String username = doctorUsername(doctor); // e.g., johnsmithSAM
+        String defaultPassword = doctorDefaultPassword(doctor); // e.g., doctorSAM
+        if (!users.containsId(username)) {
+            User doctorUser = entityFactory.createUser(username, defaultPassword, Role.DOCTOR, doctorId);
+            if (users.addIfAbsent(doctorUser)) { // Another session may have taken the name meanwhile
+                synchronized (usersFileLock) {
+                    fileManager.saveUsers(users.findAll());
+                }
+                eventManager.publishEvent("DOCTOR_USER_CREATED", new AuditEvent(session.getUser().getUsername(),
+                        List.of(doctorId, username), doctorUser + " (Password: " + defaultPassword +")",
+                        doctorUser.toString())); // The password goes to the activity log only
+            }
+        }
+
+        eventManager.publishEvent("DOCTOR_ADDED", new AuditEvent(session.getUser().getUsername(),
+                doctor + " by " + session.getUser().getUsername(), doctorId));
         return doctor;
     }
 
-    public List<Doctor> getAllDoctors() {
-         if (currentUser == null) {
+    private static String doctorUsername(Doctor doctor) {
+        return doctor.getName().toLowerCase().replaceAll("\\s+", "") + doctor.getId().substring(4, 7);
+    }
+
+    private static String doctorDefaultPassword(Doctor doctor) {
+        return "doctor" + doctor.getId().substring(4, 7);
+    }
+
+    // --- Bulk import ---
+    // Rows stream through validation, factory creation with a fresh ID and insertion one at a time; the data
+    // file is then rewritten once for the whole batch and a single summary event is published.
+
+    // CSV columns: name,contactNumber,age,gender,address
+    public ImportReport<Patient> importPatients(Session session, Path csvFile) {
+        if (!isStaff(session)) {
+            System.err.println("Access Denied: Only STAFF can import patients.");
+            return null;
+        }
+        ImportReport<Patient> report = CsvImporter.importFile(csvFile, PATIENT_CSV_COLUMNS,
+                fields -> entityFactory.createPatient(newId("PAT-", patients),
+                        CsvImporter.required(fields, 0, "name"),
+                        CsvImporter.required(fields, 1, "contactNumber"),
+                        CsvImporter.requiredInt(fields, 2, "age", 0, 150),
+                        CsvImporter.required(fields, 3, "gender"),
+                        CsvImporter.required(fields, 4, "address")),
+                patient -> addImported(patients, patient));
+        if (!report.getImported().isEmpty()) {
+            synchronized (patientsFileLock) {
+                fileManager.savePatients(patients.findAll());
+            }
+        }
+        eventManager.publishEvent("PATIENTS_IMPORTED", new AuditEvent(session.getUser().getUsername(),
+                idsOf(report.getImported(), Patient::getId), report + " by " + session.getUser().getUsername()));
+        return report;
+    }
+
+    // CSV columns: name,contactNumber,specialization,department. Each imported doctor also gets the usual login.
+    public ImportReport<Doctor> importDoctors(Session session, Path csvFile) {
+        if (!isStaff(session)) {
+            System.err.println("Access Denied: Only STAFF can import doctors.");
+            return null;
+        }
+        ImportReport<Doctor> report = CsvImporter.importFile(csvFile, DOCTOR_CSV_COLUMNS,
+                fields -> entityFactory.createDoctor(newId("DOC-", doctors),
+                        CsvImporter.required(fields, 0, "name"),
+                        CsvImporter.required(fields, 1, "contactNumber"),
+                        CsvImporter.required(fields, 2, "specialization"),
+                        CsvImporter.required(fields, 3, "department")),
+                doctor -> addImported(doctors, doctor));
+        int usersCreated = 0;
+        if (!report.getImported().isEmpty()) {
+            synchronized (doctorsFileLock) {
+                fileManager.saveDoctors(doctors.findAll());
+            }
+            // Password hashing dominates a doctor import, so the accounts are created in parallel
+            List<User> doctorUsers = report.getImported().parallelStream()
+                    .filter(doctor -> !users.containsId(doctorUsername(doctor)))
+                    .map(doctor -> entityFactory.createUser(doctorUsername(doctor), doctorDefaultPassword(doctor), Role.DOCTOR, doctor.getId()))
+                    .collect(Collectors.toList());
+            for (User doctorUser : doctorUsers) {
+                if (users.addIfAbsent(doctorUser)) {
+                    usersCreated++;
+                }
+            }
+            if (usersCreated > 0) {
+                synchronized (usersFileLock) {
+                    fileManager.saveUsers(users.findAll());
+                }
+            }
+        }
+        eventManager.publishEvent("DOCTORS_IMPORTED", new AuditEvent(session.getUser().getUsername(), idsOf(report.getImported(), Doctor::getId),
+                report + ", " + usersCreated + " doctor logins created by " + session.getUser().getUsername()));
+        return report;
+    }
+
+    private static String newId(String prefix, InMemoryRepository<?> repository) {
+        String id;
+        do {
+            id = prefix + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        } while (repository.containsId(id)); // IDs carry 32 random bits, so collisions are plausible in tables of 100k+ rows
+        return id;
+    }
+
+    private static <T> T addImported(InMemoryRepository<T> repository, T entity) {
+        if (!repository.addIfAbsent(entity)) {
+            throw new IllegalArgumentException("generated ID already taken, row not imported");
+        }
+        return entity;
+    }
+
+    public List<Doctor> getAllDoctors(Session session) {
+        if (!isLoggedIn(session)) {
              System.err.println("Access Denied: Please login.");
              return new ArrayList<>();
         }
         // Both staff and doctors can view doctors
-        return new ArrayList<>(doctors);
+        return doctors.findAll();
     }
 
-    public Optional<Doctor> findDoctorById(String doctorId) {
-        if (currentUser == null) {
+    public Page<Doctor> getDoctorsPage(Session session, String cursor, int pageSize) {
+        if (!isLoggedIn(session)) {
+             System.err.println("Access Denied: Please login.");
+             return Page.empty();
+        }
+        return findPage(doctors, cursor, pageSize);
+    }
+
+    public Optional<Doctor> findDoctorById(Session session, String doctorId) {
+        if (!isLoggedIn(session)) {
              System.err.println("Access Denied: Please login.");
              return Optional.empty();
         }
-        return doctors.stream().filter(d -> d.getId().equals(doctorId)).findFirst();
+        return doctors.findById(doctorId);
     }
 
 
     // --- Appointment Operations ---
-    public Appointment scheduleNewAppointment(String patientId, String doctorId, LocalDateTime dateTime, String description) {
-        if (!isStaff()) { // Only staff can schedule new appointments
+    public Appointment scheduleNewAppointment(Session session, String patientId, String doctorId, LocalDateTime dateTime, String description) {
+        if (!isStaff(session)) { // Only staff can schedule new appointments
             System.err.println("Access Denied: Only STAFF can schedule new appointments.");
             return null;
         }
-        if (findPatientById(patientId).isEmpty() || findDoctorById(doctorId).isEmpty()) {
+        if (!patients.containsId(patientId) || !doctors.containsId(doctorId)) {
             System.err.println("Error: Invalid Patient ID or Doctor ID.");
             return null;
         }
 
-        String appointmentId = "APP-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         // Appointments are created in PENDING_APPROVAL state by default (handled by Appointment constructor)
-        Appointment appointment = entityFactory.createAppointment(appointmentId, patientId, doctorId, dateTime, description);
-        appointments.add(appointment);
-        fileManager.saveAppointments(appointments);
-        eventManager.publishEvent("APPOINTMENT_SCHEDULED_PENDING", appointment + " by " + currentUser.getUsername());
+        Appointment appointment = entityFactory.createAppointment(newId("APP-", appointments), patientId, doctorId, dateTime, description);
+        Lock doctorLock = appointments.doctorLock(doctorId);
+        doctorLock.lock();
+        try {
+            Optional<Appointment> conflict = appointments.findConflict(doctorId, dateTime);
+            if (conflict.isPresent()) {
+                System.err.println("Error: Doctor " + doctorId + " is already booked at " + conflict.get().getDateTime()
+                        + " (" + conflict.get().getAppointmentId() + "). Appointments take "
+                        + AppointmentRepository.getSlotDuration().toMinutes() + " minutes.");
+                return null;
+            }
+            while (!appointments.addIfAbsent(appointment)) { // A booking for another doctor took the ID since newId checked it
+                appointment = entityFactory.createAppointment(newId("APP-", appointments), patientId, doctorId, dateTime, description);
+            }
+            fileManager.saveAppointmentChange(appointment, appointments::findAll);
+        } finally {
+            doctorLock.unlock();
+        }
+        eventManager.publishEvent("APPOINTMENT_SCHEDULED_PENDING", new AuditEvent(session.getUser().getUsername(),
+                appointment + " by " + session.getUser().getUsername(), auditIdsOf(appointment)));
         return appointment;
     }
 
-    public List<Appointment> getAllAppointments() {
-        if (!isStaff()) {
+    public List<Appointment> getAllAppointments(Session session) {
+        if (!isStaff(session)) {
             System.err.println("Access Denied: Only STAFF can view all appointments.");
             return new ArrayList<>();
         }
-        return new ArrayList<>(appointments);
+        return appointments.findAll();
     }
 
-    public List<Appointment> getAppointmentsForPatient(String patientId) {
-        if (currentUser == null) {
+    public Page<Appointment> getAppointmentsPage(Session session, String cursor, int pageSize) {
+        if (!isStaff(session)) {
+            System.err.println("Access Denied: Only STAFF can view all appointments.");
+            return Page.empty();
+        }
+        return findPage(appointments, cursor, pageSize);
+    }
+
+    // Page sizes are capped so no single request copies more than MAX_PAGE_SIZE entities.
+    private static <T> Page<T> findPage(InMemoryRepository<T> repository, String cursor, int pageSize) {
+        try {
+            return repository.findPage(cursor, Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return Page.empty();
+        }
+    }
+
+    public Optional<Appointment> findAppointmentById(Session session, String appointmentId) {
+        if (!isLoggedIn(session)) {
+            System.err.println("Access Denied: Please login.");
+            return Optional.empty();
+        }
+        return appointments.findById(appointmentId);
+    }
+
+    public List<Appointment> getAppointmentsForPatient(Session session, String patientId) {
+        if (!isLoggedIn(session)) {
             System.err.println("Access Denied: Please login.");
             return new ArrayList<>();
         }
         // Staff can see any patient's appointments
         // Doctors can see their own patient's appointments if they are the assigned doctor (more complex check not added here for brevity)
-        return appointments.stream()
-                           .filter(app -> app.getPatientId().equals(patientId))
-                           .collect(Collectors.toList());
+        return appointments.findByPatient(patientId); // Ordered by date/time
+    }
+
+    public List<Appointment> getUpcomingAppointmentsForPatient(Session session, String patientId) {
+        if (!isLoggedIn(session)) {
+            System.err.println("Access Denied: Please login.");
+            return new ArrayList<>();
+        }
+        return appointments.findByPatientFrom(patientId, LocalDateTime.now());
+    }
+
+    public List<Appointment> getAppointmentsForPatientBetween(Session session, String patientId, LocalDateTime from, LocalDateTime to) {
+        if (!isLoggedIn(session)) {
+            System.err.println("Access Denied: Please login.");
+            return new ArrayList<>();
+        }
+        return appointments.findByPatientBetween(patientId, from, to);
     }
 
     // --- Doctor-Specific Appointment Management ---
-    public List<Appointment> getAppointmentsForDoctor(String doctorId, AppointmentStatus statusFilter) {
-        if (!isAuthorizedDoctor(doctorId) && !isStaff()) { // Staff can also use this to view
+    public List<Appointment> getAppointmentsForDoctor(Session session, String doctorId, AppointmentStatus statusFilter) {
+        if (!isAuthorizedDoctor(session, doctorId) && !isStaff(session)) { // Staff can also use this to view
              System.err.println("Access Denied or Doctor ID mismatch.");
              return new ArrayList<>();
         }
-        return appointments.stream()
-                           .filter(app -> app.getDoctorId().equals(doctorId) && (statusFilter == null || app.getStatus() == statusFilter))
-                           .collect(Collectors.toList());
+        return appointments.findByDoctor(doctorId, statusFilter);
     }
 
 
-    public boolean processAppointmentAction(String appointmentId, String action) { // action: "ACCEPT" or "REJECT"
-        if (!isDoctor()) {
+    public boolean processAppointmentAction(Session session, String appointmentId, String action) { // action: "ACCEPT" or "REJECT"
+        if (!isDoctor(session)) {
             System.err.println("Access Denied: Only DOCTORs can accept/reject appointments.");
             return false;
         }
-        Optional<Appointment> appOpt = appointments.stream()
-                                                   .filter(a -> a.getAppointmentId().equals(appointmentId) &&
-                                                                a.getDoctorId().equals(currentUser.getEntityId())) // Ensure it's their appointment
-                                                   .findFirst();
+        boolean accept = action.equalsIgnoreCase("ACCEPT");
+        if (!accept && !action.equalsIgnoreCase("REJECT")) {
+            System.err.println("Invalid action.");
+            return false;
+        }
+        String doctorId = session.getUser().getEntityId();
+        Optional<Appointment> appOpt = appointments.findById(appointmentId)
+                                                   .filter(a -> a.getDoctorId().equals(doctorId)); // Ensure it's their appointment
         if (appOpt.isPresent()) {
             Appointment appointment = appOpt.get();
-            String oldStatus = appointment.getStatus().name();
-            if (action.equalsIgnoreCase("ACCEPT")) {
-                appointment.acceptAppointment(currentUser.getEntityId());
-            } else if (action.equalsIgnoreCase("REJECT")) {
-                appointment.rejectAppointment(currentUser.getEntityId());
-            } else {
-                System.err.println("Invalid action.");
+            String oldStatus;
+            TransitionResult result;
+            Lock doctorLock = appointments.doctorLock(doctorId);
+            doctorLock.lock();
+            try {
+                oldStatus = appointment.getStatus().name();
+                result = accept ? appointment.acceptAppointment(doctorId) : appointment.rejectAppointment(doctorId);
+                if (result.isApplied()) {
+                    fileManager.saveAppointmentChange(appointment, appointments::findAll); // Save changes
+                }
+            } finally {
+                doctorLock.unlock();
+            }
+            if (!result.isApplied()) {
+                System.out.println(refusalMessage(appointment, action, result));
                 return false;
             }
-            fileManager.saveAppointments(appointments); // Save changes
-            eventManager.publishEvent("APPOINTMENT_" + action.toUpperCase() + "ED",
+            System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " " + appointment.getStatus() + " by Dr. " + doctorId);
+            eventManager.publishEvent("APPOINTMENT_" + action.toUpperCase() + "ED", new AuditEvent(session.getUser().getUsername(),
                                      "ID: " + appointment.getAppointmentId() +
                                      ", Old Status: " + oldStatus + ", New Status: " + appointment.getStatus().name() +
-                                     " by Dr. " + currentUser.getUsername());
+                                     " by Dr. " + session.getUser().getUsername(), auditIdsOf(appointment)));
             return true;
         } else {
             System.err.println("Appointment not found or not assigned to you.");
             return false;
         }
     }
-    
+
     // Staff can cancel appointments
-    public boolean cancelAppointmentByStaff(String appointmentId) {
-        if (!isStaff()) {
+    public boolean cancelAppointmentByStaff(Session session, String appointmentId) {
+        if (!isStaff(session)) {
             System.err.println("Access Denied: Only STAFF can cancel appointments this way.");
             return false;
         }
-        Optional<Appointment> appOpt = appointments.stream()
-                                                   .filter(a -> a.getAppointmentId().equals(appointmentId))
-                                                   .findFirst();
+        Optional<Appointment> appOpt = appointments.findById(appointmentId);
         if (appOpt.isPresent()) {
             Appointment appointment = appOpt.get();
-            // Check if appointment is in a cancellable state (e.g., PENDING or ACCEPTED)
-            if (appointment.getStatus() == AppointmentStatus.PENDING_APPROVAL || appointment.getStatus() == AppointmentStatus.ACCEPTED) {
-                String oldStatus = appointment.getStatus().name();
-                appointment.cancelAppointment(currentUser.getUsername()); // Actor is current staff user
-                fileManager.saveAppointments(appointments);
-                eventManager.publishEvent("APPOINTMENT_CANCELLED",
-                                         "ID: " + appointment.getAppointmentId() +
-                                         ", Old Status: " + oldStatus + ", New Status: " + appointment.getStatus().name() +
-                                         " by Staff " + currentUser.getUsername());
-                return true;
-            } else {
-                System.err.println("Appointment cannot be cancelled from its current state: " + appointment.getStatus());
+            String staffUsername = session.getUser().getUsername();
+            String oldStatus;
+            TransitionResult result;
+            Lock doctorLock = appointments.doctorLock(appointment.getDoctorId());
+            doctorLock.lock();
+            try {
+                oldStatus = appointment.getStatus().name();
+                result = appointment.cancelAppointment(staffUsername); // Only PENDING or ACCEPTED appointments can be cancelled
+                if (result.isApplied()) {
+                    fileManager.saveAppointmentChange(appointment, appointments::findAll);
+                }
+            } finally {
+                doctorLock.unlock();
+            }
+            if (!result.isApplied()) {
+                System.err.println("Appointment cannot be cancelled from its current state: " + oldStatus);
                 return false;
             }
+            System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " CANCELLED by " + staffUsername + ".");
+            eventManager.publishEvent("APPOINTMENT_CANCELLED", new AuditEvent(staffUsername,
+                                     "ID: " + appointment.getAppointmentId() +
+                                     ", Old Status: " + oldStatus + ", New Status: " + appointment.getStatus().name() +
+                                     " by Staff " + staffUsername, auditIdsOf(appointment)));
+            return true;
         } else {
             System.err.println("Appointment ID " + appointmentId + " not found.");
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // --- Batch actions ---
+    // One action over many appointments: all transitions run under the involved doctors' locks, the changes
+    // are persisted with a single write and announced with a single event. Outcomes are keyed by appointment
+    // ID in request order (duplicates collapse).
+
+    public Map<String, AppointmentActionOutcome> processAppointmentActions(Session session, Collection<String> appointmentIds, String action) {
+        if (!isDoctor(session)) {
+            System.err.println("Access Denied: Only DOCTORs can accept/reject appointments.");
+            return new LinkedHashMap<>();
+        }
+        boolean accept = action.equalsIgnoreCase("ACCEPT");
+        if (!accept && !action.equalsIgnoreCase("REJECT")) {
+            System.err.println("Invalid action.");
+            return new LinkedHashMap<>();
+        }
+        String doctorId = session.getUser().getEntityId();
+        Map<String, AppointmentActionOutcome> outcomes = new LinkedHashMap<>();
+        List<Appointment> targets = new ArrayList<>();
+        for (String appointmentId : appointmentIds) {
+            if (outcomes.containsKey(appointmentId)) continue;
+            Optional<Appointment> appOpt = appointments.findById(appointmentId);
+            if (!appOpt.isPresent()) {
+                outcomes.put(appointmentId, AppointmentActionOutcome.NOT_FOUND);
+            } else if (!appOpt.get().getDoctorId().equals(doctorId)) { // Only their own appointments
+                outcomes.put(appointmentId, AppointmentActionOutcome.NOT_ASSIGNED_TO_DOCTOR);
+            } else {
+                outcomes.put(appointmentId, null); // Decided under the lock
+                targets.add(appOpt.get());
+            }
+        }
+        List<Appointment> changed = applyBatch(targets, outcomes,
+                appointment -> accept ? appointment.acceptAppointment(doctorId) : appointment.rejectAppointment(doctorId));
+        if (!changed.isEmpty()) {
+            eventManager.publishEvent("APPOINTMENTS_" + action.toUpperCase() + "ED", new AuditEvent(session.getUser().getUsername(),
+                                     auditIdsOf(changed),
+                                     "IDs: " + appointmentIdsOf(changed) + ", " + changed.size() + " of " + outcomes.size() +
+                                     " applied, New Status: " + changed.get(0).getStatus().name() +
+                                     " by Dr. " + session.getUser().getUsername()));
+        }
+        return outcomes;
+    }
+
+    public Map<String, AppointmentActionOutcome> cancelAppointmentsByStaff(Session session, Collection<String> appointmentIds) {
+        if (!isStaff(session)) {
+            System.err.println("Access Denied: Only STAFF can cancel appointments this way.");
+            return new LinkedHashMap<>();
+        }
+        String staffUsername = session.getUser().getUsername();
+        Map<String, AppointmentActionOutcome> outcomes = new LinkedHashMap<>();
+        List<Appointment> targets = new ArrayList<>();
+        for (String appointmentId : appointmentIds) {
+            if (outcomes.containsKey(appointmentId)) continue;
+            Optional<Appointment> appOpt = appointments.findById(appointmentId);
+            if (appOpt.isPresent()) {
+                outcomes.put(appointmentId, null); // Decided under the lock
+                targets.add(appOpt.get());
+            } else {
+                outcomes.put(appointmentId, AppointmentActionOutcome.NOT_FOUND);
+            }
+        }
+        List<Appointment> changed = applyBatch(targets, outcomes, appointment -> appointment.cancelAppointment(staffUsername));
+        if (!changed.isEmpty()) {
+            eventManager.publishEvent("APPOINTMENTS_CANCELLED", new AuditEvent(staffUsername, auditIdsOf(changed),
+                                     "IDs: " + appointmentIdsOf(changed) + ", " + changed.size() + " of " + outcomes.size() +
+                                     " applied, New Status: " + AppointmentStatus.CANCELLED_BY_STAFF.name() +
+                                     " by Staff " + staffUsername));
+        }
+        return outcomes;
+    }
+
+    // Locks the stripes of every involved doctor in stripe order, applies the transition to each target and
+    // records its outcome, then persists the changed ones once.
+    private List<Appointment> applyBatch(List<Appointment> targets, Map<String, AppointmentActionOutcome> outcomes,
+                                         Function<Appointment, TransitionResult> transition) {
+        List<String> doctorIds = new ArrayList<>();
+        for (Appointment appointment : targets) {
+            doctorIds.add(appointment.getDoctorId());
+        }
+        List<Lock> locks = appointments.doctorLocks().forKeys(doctorIds);
+        List<Appointment> changed = new ArrayList<>();
+        for (Lock lock : locks) {
+            lock.lock();
+        }
+        try {
+            for (Appointment appointment : targets) {
+                TransitionResult result = transition.apply(appointment);
+                outcomes.put(appointment.getAppointmentId(), outcomeOf(result));
+                if (result.isApplied()) {
+                    changed.add(appointment);
+                }
+            }
+            fileManager.saveAppointmentChanges(changed, appointments::findAll);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+        return changed;
+    }
+
+    private static AppointmentActionOutcome outcomeOf(TransitionResult result) {
+        switch (result) {
+            case APPLIED: return AppointmentActionOutcome.APPLIED;
+            case NOT_ASSIGNED_TO_DOCTOR: return AppointmentActionOutcome.NOT_ASSIGNED_TO_DOCTOR;
+            default: return AppointmentActionOutcome.INVALID_STATE;
+        }
+    }
+
+    // Console wording for a transition the appointment's state refused.
+    private static String refusalMessage(Appointment appointment, String action, TransitionResult result) {
+        switch (result) {
+            case NOT_ASSIGNED_TO_DOCTOR:
+                return "Error: Appointment " + appointment.getAppointmentId() + " is assigned to Dr. " + appointment.getDoctorId() + ".";
+            case ALREADY_IN_STATE:
+                return "INFO: Appointment " + appointment.getAppointmentId() + " is already " + appointment.getStatus() + ".";
+            default:
+                return "INFO: Appointment " + appointment.getAppointmentId() + " is " + appointment.getStatus()
+                        + ". Cannot " + action.toLowerCase() + " it now.";
+        }
+    }
+
+    private static List<String> appointmentIdsOf(List<Appointment> appointmentList) {
+        List<String> ids = new ArrayList<>(appointmentList.size());
+        for (Appointment appointment : appointmentList) {
+            ids.add(appointment.getAppointmentId());
+        }
+        return ids;
+    }
+
+    // --- Audit trail (Staff) ---
+    // Recorded events matching every given filter (null = any) with from <= time <= to (null = open-ended),
+    // oldest first. eventType, actor (username) and entityId (patient, doctor, appointment ID or username) are
+    // exact matches.
+    public Page<AuditRecord> queryAuditLog(Session session, String eventType, String actor, String entityId,
+                                           LocalDateTime from, LocalDateTime to, String cursor, int pageSize) {
+        try {
+            if (!isStaff(session)) {
+                System.err.println("Access Denied: Only STAFF can view the audit log.");
+                return Page.empty();
+            }
+            if (auditStore == null) {
+                System.err.println("Error: The audit log is not available.");
+                return Page.empty();
+            }
+            return auditStore.queryPage(eventType, actor, entityId, from, to, cursor, Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return Page.empty();
+        }
+    }
+
+    // Audit entity IDs of an appointment event: the appointment and the people it concerns.
+    private static String[] auditIdsOf(Appointment appointment) {
+        return new String[]{appointment.getAppointmentId(), appointment.getPatientId(), appointment.getDoctorId()};
+    }
+
+    private static List<String> auditIdsOf(List<Appointment> appointmentList) {
+        List<String> ids = new ArrayList<>(appointmentList.size() * 3);
+        for (Appointment appointment : appointmentList) {
+            Collections.addAll(ids, auditIdsOf(appointment));
+        }
+        return ids; // AuditEvent drops the repeats
+    }
+
+    private static <T> List<String> idsOf(List<T> entities, Function<T, String> id) {
+        List<String> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(id.apply(entity));
+        }
+        return ids;
+    }
+
+    // --- Console API: one operator at a time, backed by a single current session ---
+    public boolean login(String username, String password) {
+        Session session = openSession(username, password);
+        if (session != null) {
+            this.currentSession = session;
+            return true;
+        }
+        return false;
+    }
+
+    public void logout() {
+        if (currentSession != null) {
+            closeSession(currentSession);
+            this.currentSession = null;
+        }
+    }
+
+    public Session getCurrentSession() {
+        return currentSession;
+    }
+
+    public User getCurrentUser() {
+        Session session = currentSession;
+        return (session != null) ? session.getUser() : null;
+    }
+
+    public Role getCurrentUserRole() {
+        Session session = currentSession;
+        return (session != null) ? session.getRole() : null;
+    }
+
+    public Patient registerNewPatient(String name, String contactNumber, int age, String gender, String address) {
+        return registerNewPatient(currentSession, name, contactNumber, age, gender, address);
+    }
+
+    public List<Patient> getAllPatients() {
+        return getAllPatients(currentSession);
+    }
+
+    public Page<Patient> getPatientsPage(String cursor, int pageSize) {
+        return getPatientsPage(currentSession, cursor, pageSize);
+    }
+
+    public Optional<Patient> findPatientById(String patientId) {
+        return findPatientById(currentSession, patientId);
+    }
+
+    public List<Patient> searchPatients(String query, int limit) {
+        return searchPatients(currentSession, query, limit);
+    }
+
+    public Doctor addNewDoctor(String name, String contactNumber, String specialization, String department) {
+        return addNewDoctor(currentSession, name, contactNumber, specialization, department);
+    }
+
+    public ImportReport<Patient> importPatients(Path csvFile) {
+        return importPatients(currentSession, csvFile);
+    }
+
+    public ImportReport<Doctor> importDoctors(Path csvFile) {
+        return importDoctors(currentSession, csvFile);
+    }
+
+    public List<Doctor> getAllDoctors() {
+        return getAllDoctors(currentSession);
+    }
+
+    public Page<Doctor> getDoctorsPage(String cursor, int pageSize) {
+        return getDoctorsPage(currentSession, cursor, pageSize);
+    }
+
+    public Optional<Doctor> findDoctorById(String doctorId) {
+        return findDoctorById(currentSession, doctorId);
+    }
+
+    public Appointment scheduleNewAppointment(String patientId, String doctorId, LocalDateTime dateTime, String description) {
+        return scheduleNewAppointment(currentSession, patientId, doctorId, dateTime, description);
+    }
+
+    public List<Appointment> getAllAppointments() {
+        return getAllAppointments(currentSession);
+    }
+
+    public Optional<Appointment> findAppointmentById(String appointmentId) {
+        return findAppointmentById(currentSession, appointmentId);
+    }
+
+    public Page<Appointment> getAppointmentsPage(String cursor, int pageSize) {
+        return getAppointmentsPage(currentSession, cursor, pageSize);
+    }
+
+    public List<Appointment> getAppointmentsForPatient(String patientId) {
+        return getAppointmentsForPatient(currentSession, patientId);
+    }
+
+    public List<Appointment> getUpcomingAppointmentsForPatient(String patientId) {
+        return getUpcomingAppointmentsForPatient(currentSession, patientId);
+    }
+
+    public List<Appointment> getAppointmentsForPatientBetween(String patientId, LocalDateTime from, LocalDateTime to) {
+        return getAppointmentsForPatientBetween(currentSession, patientId, from, to);
+    }
+
+    public List<Appointment> getAppointmentsForDoctor(String doctorId, AppointmentStatus statusFilter) {
+        return getAppointmentsForDoctor(currentSession, doctorId, statusFilter);
+    }
+
+    public boolean processAppointmentAction(String appointmentId, String action) {
+        return processAppointmentAction(currentSession, appointmentId, action);
+    }
+
+    public Map<String, AppointmentActionOutcome> processAppointmentActions(Collection<String> appointmentIds, String action) {
+        return processAppointmentActions(currentSession, appointmentIds, action);
+    }
+
+    public Map<String, AppointmentActionOutcome> cancelAppointmentsByStaff(Collection<String> appointmentIds) {
+        return cancelAppointmentsByStaff(currentSession, appointmentIds);
+    }
+
+    public boolean cancelAppointmentByStaff(String appointmentId) {
+        return cancelAppointmentByStaff(currentSession, appointmentId);
+    }
+
+    public Page<AuditRecord> queryAuditLog(String eventType, String actor, String entityId,
+                                           LocalDateTime from, LocalDateTime to, String cursor, int pageSize) {
+        return queryAuditLog(currentSession, eventType, actor, entityId, from, to, cursor, pageSize);
+    }
+}
@@ -1,29 +1,37 @@
 package com.hospital.core;
 
+import com.hospital.metrics.Metrics;
 import com.hospital.model.*;
+import com.hospital.repository.Page;
 import com.hospital.observer.ActivityLogger;
 import com.hospital.observer.EventManager;
+import com.hospital.service.FileManager;
+import com.hospital.service.ImportReport;
 
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.BiFunction;
 
 public class HospitalManagementSystem {
     private static HospitalManagementFacade facade;
     private static Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int PAGE_SIZE = Integer.getInteger("hospital.console.pageSize", 20); // Rows per "View All" page
 
     public static void main(String[] args) {
         EventManager eventManager = new EventManager();
         ActivityLogger activityLogger = new ActivityLogger();
         eventManager.registerObserver(activityLogger);
 
-        facade = new HospitalManagementFacade(eventManager);
+        facade = HospitalManagementFacade.create(eventManager);
 
         System.out.println("Welcome to the Hospital Management System!");
-        System.out.println("IMPORTANT: For simplicity, passwords are plain text. DO NOT use real passwords.");
         System.out.println("Default users exist: e.g., staff/staff123, doctor1/doc123 (for DOC-SAMPLE1)");
 
         boolean running = true;
@@ -40,6 +48,9 @@ public class HospitalManagementSystem {
             }
         }
         scanner.close();
+        eventManager.shutdown(); // Delivers queued events when dispatch is asynchronous
+        FileManager.getInstance().flushActivityLog();
+        Metrics.dump(); // Final snapshot when metrics are enabled
     }
     
     private static boolean promptForLoginRetry() {
@@ -99,6 +110,11 @@ public class HospitalManagementSystem {
             System.out.println("7. View Appointments for a Patient");
             System.out.println("8. View Appointments for a Doctor (Any Status)");
             System.out.println("9. Cancel an Appointment");
+            System.out.println("10. Import Patients from CSV");
+            System.out.println("11. Import Doctors from CSV (& create basic users for them)");
+            System.out.println("12. Cancel several Appointments");
+            System.out.println("13. Search Patients by Name or Phone");
+            System.out.println("14. Search Audit Log");
             System.out.println("0. Logout");
             System.out.print("Enter your choice: ");
 
@@ -121,6 +137,11 @@ public class HospitalManagementSystem {
                 case 7: viewAppointmentsByPatient(); break;
                 case 8: viewAppointmentsByDoctorForStaff(); break;
                 case 9: cancelAppointmentByStaff(); break;
+                case 10: importPatients(); break;
+                case 11: importDoctors(); break;
+                case 12: cancelAppointmentsByStaff(); break;
+                case 13: searchPatients(); break;
+                case 14: searchAuditLog(); break;
                 case 0:
                     facade.logout();
                     staffLoggedIn = false;
@@ -164,6 +185,7 @@ public class HospitalManagementSystem {
             System.out.println("5. REJECT an Appointment");
             System.out.println("6. View All Patients (Read-only)");
             System.out.println("7. View All Doctors (Read-only)");
+            System.out.println("8. ACCEPT or REJECT several Appointments");
             System.out.println("0. Logout");
             System.out.print("Enter your choice: ");
 
@@ -184,6 +206,7 @@ public class HospitalManagementSystem {
                 case 5: processDoctorAppointmentAction("REJECT"); break;
                 case 6: viewAllPatients(); break;
                 case 7: viewAllDoctors(); break;
+                case 8: processDoctorAppointmentBatch(doctorEntityId); break;
                 case 0:
                     facade.logout();
                     doctorLoggedIn = false;
@@ -229,12 +252,59 @@ public class HospitalManagementSystem {
         System.out.print("Enter Appointment ID to " + action.toLowerCase() + ": ");
         String appointmentId = scanner.nextLine();
         if (facade.processAppointmentAction(appointmentId, action)) {
-            // Message is printed within Facade/State
+            // Message is printed within Facade
         } else {
             // Error message printed within Facade
         }
     }
 
+    private static void processDoctorAppointmentBatch(String doctorId) {
+        System.out.println("\n--- ACCEPT/REJECT several Appointments ---");
+        System.out.print("Action (ACCEPT/REJECT): "); String action = scanner.nextLine().trim().toUpperCase();
+        if (!action.equals("ACCEPT") && !action.equals("REJECT")) {
+            System.out.println("Invalid action.");
+            return;
+        }
+        System.out.print("Enter Appointment IDs separated by commas, or ALL for every pending appointment: ");
+        String input = scanner.nextLine().trim();
+        List<String> ids = new ArrayList<>();
+        if (input.equalsIgnoreCase("ALL")) {
+            for (Appointment app : facade.getAppointmentsForDoctor(doctorId, AppointmentStatus.PENDING_APPROVAL)) {
+                ids.add(app.getAppointmentId());
+            }
+        } else {
+            ids = parseIdList(input);
+        }
+        printOutcomes(facade.processAppointmentActions(ids, action));
+    }
+
+    private static void cancelAppointmentsByStaff() {
+        System.out.println("\n--- Cancel several Appointments (Staff) ---");
+        System.out.print("Enter Appointment IDs separated by commas: ");
+        printOutcomes(facade.cancelAppointmentsByStaff(parseIdList(scanner.nextLine())));
+    }
+
+    private static List<String> parseIdList(String input) {
+        List<String> ids = new ArrayList<>();
+        for (String id : input.split(",")) {
+            if (!id.trim().isEmpty()) ids.add(id.trim());
+        }
+        return ids;
+    }
+
+    private static void printOutcomes(Map<String, AppointmentActionOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            System.out.println("No appointments processed.");
+            return;
+        }
+        int applied = 0;
+        for (Map.Entry<String, AppointmentActionOutcome> outcome : outcomes.entrySet()) {
+            System.out.println("  " + outcome.getKey() + ": " + outcome.getValue());
+            if (outcome.getValue() == AppointmentActionOutcome.APPLIED) applied++;
+        }
+        System.out.println(applied + " of " + outcomes.size() + " appointments updated.");
+    }
+
     // --- Shared/Modified Menu Actions ---
     private static void registerPatient() { // Staff only
         System.out.println("\n--- Register New Patient ---");
@@ -261,6 +331,33 @@ public class HospitalManagementSystem {
         }
     }
 
+    private static void importPatients() { // Staff only
+        System.out.println("\n--- Import Patients from CSV ---");
+        System.out.println("Columns: name,contactNumber,age,gender,address (an optional header row is skipped)");
+        System.out.print("Enter CSV file path: "); String path = scanner.nextLine().trim();
+        printImportReport(facade.importPatients(Paths.get(path)));
+    }
+
+    private static void importDoctors() { // Staff only
+        System.out.println("\n--- Import Doctors from CSV ---");
+        System.out.println("Columns: name,contactNumber,specialization,department (an optional header row is skipped)");
+        System.out.print("Enter CSV file path: "); String path = scanner.nextLine().trim();
+        ImportReport<Doctor> report = facade.importDoctors(Paths.get(path));
+        printImportReport(report);
+        if (report != null && !report.getImported().isEmpty()) {
+            System.out.println("Doctor logins follow the usual pattern: name without spaces + characters 5-7 of the Doctor ID,");
+            System.out.println("with password 'doctor' + the same characters (e.g. DOC-ABC12345 -> johnsmithABC / doctorABC).");
+        }
+    }
+
+    private static void printImportReport(ImportReport<?> report) {
+        if (report == null) return;
+        System.out.println(report + ".");
+        for (ImportReport.RowError error : report.getErrors()) {
+            System.out.println("  " + error);
+        }
+    }
+
     private static void scheduleAppointment() { // Staff only
         System.out.println("\n--- Schedule New Appointment (will be PENDING_APPROVAL) ---");
         System.out.print("Enter Patient ID: "); String patId = scanner.nextLine();
@@ -279,30 +376,85 @@ public class HospitalManagementSystem {
 
     private static void viewAllPatients() {
         System.out.println("\n--- All Patients ---");
-        List<Patient> items = facade.getAllPatients();
-        if (items.isEmpty()) System.out.println("No patients found.");
-        else items.forEach(System.out::println);
+        printPages(facade::getPatientsPage, "No patients found.");
+    }
+
+    private static void searchPatients() {
+        System.out.println("\n--- Search Patients ---");
+        System.out.print("Enter name and/or phone number (partial or misspelled is fine): ");
+        String query = scanner.nextLine();
+        List<Patient> matches = facade.searchPatients(query, PAGE_SIZE);
+        if (matches.isEmpty()) {
+            System.out.println("No patients match: " + query);
+        } else {
+            matches.forEach(System.out::println);
+            if (matches.size() == PAGE_SIZE) {
+                System.out.println("-- Showing the best " + PAGE_SIZE + " matches. Add more of the name or number to narrow it down.");
+            }
+        }
+    }
+
+    private static void searchAuditLog() {
+        System.out.println("\n--- Search Audit Log (leave a filter blank for any) ---");
+        System.out.print("Event type (e.g. APPOINTMENT_CANCELLED): "); String eventType = blankToNull(scanner.nextLine());
+        System.out.print("By user: "); String actor = blankToNull(scanner.nextLine());
+        System.out.print("Patient, doctor, appointment ID or username: "); String entityId = blankToNull(scanner.nextLine());
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            System.out.print("From (YYYY-MM-DD HH:MM): "); String fromStr = blankToNull(scanner.nextLine());
+            from = fromStr == null ? null : LocalDateTime.parse(fromStr, dateTimeFormatter);
+            System.out.print("To (YYYY-MM-DD HH:MM): "); String toStr = blankToNull(scanner.nextLine());
+            to = toStr == null ? null : LocalDateTime.parse(toStr, dateTimeFormatter).plusMinutes(1).minusNanos(1); // Through the whole minute
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date/time format.");
+            return;
+        }
+        printPages((cursor, pageSize) -> facade.queryAuditLog(eventType, actor, entityId, from, to, cursor, pageSize),
+                "No audit records match.");
+    }
+
+    private static String blankToNull(String input) {
+        String trimmed = input.trim();
+        return trimmed.isEmpty() ? null : trimmed;
     }
 
     private static void viewAllDoctors() {
         System.out.println("\n--- All Doctors ---");
-        List<Doctor> items = facade.getAllDoctors();
-        if (items.isEmpty()) System.out.println("No doctors found.");
-        else items.forEach(System.out::println);
+        printPages(facade::getDoctorsPage, "No doctors found.");
     }
 
     private static void viewAllAppointmentsByStaff() { // Staff view
         System.out.println("\n--- All Appointments (Staff View) ---");
-        List<Appointment> items = facade.getAllAppointments();
-        if (items.isEmpty()) System.out.println("No appointments found.");
-        else items.forEach(System.out::println);
+        printPages(facade::getAppointmentsPage, "No appointments found.");
+    }
+
+    // Fetches and prints one page at a time until the listing ends or the user stops.
+    private static <T> void printPages(BiFunction<String, Integer, Page<T>> fetchPage, String emptyMessage) {
+        Page<T> page = fetchPage.apply(null, PAGE_SIZE);
+        if (page.getItems().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        int shown = 0;
+        while (true) {
+            page.getItems().forEach(System.out::println);
+            shown += page.getItems().size();
+            if (!page.hasNext()) break;
+            System.out.print("-- " + shown + " shown. Press Enter for more, or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+            page = fetchPage.apply(page.getNextCursor(), PAGE_SIZE);
+        }
     }
     
     private static void viewAppointmentsByPatient() {
         System.out.println("\n--- Appointments by Patient ---");
         System.out.print("Enter Patient ID: ");
         String patientId = scanner.nextLine();
-        List<Appointment> appointments = facade.getAppointmentsForPatient(patientId);
+        System.out.print("Show only upcoming appointments? (yes/no): ");
+        boolean upcomingOnly = scanner.nextLine().trim().equalsIgnoreCase("yes");
+        List<Appointment> appointments = upcomingOnly ? facade.getUpcomingAppointmentsForPatient(patientId)
+                                                      : facade.getAppointmentsForPatient(patientId);
         if (appointments.isEmpty()) {
             System.out.println("No appointments found for patient ID: " + patientId);
         } else {
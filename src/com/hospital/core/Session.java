@@ -0,0 +1,40 @@
+package com.hospital.core;
+
+import com.hospital.model.Role;
+import com.hospital.model.User;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Handle for one logged-in operator (front-desk terminal, doctor, ...), returned by HospitalManagementFacade.openSession.
+// Every facade operation takes the session it runs on behalf of, so one facade can serve many users at once.
+public class Session {
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+
+    private final String token;
+    private final User user;
+    private final LocalDateTime openedAt;
+    private volatile long lastUsedNanos = System.nanoTime(); // For the facade's idle timeout
+
+    Session(User user) {
+        byte[] tokenBytes = new byte[24];
+        TOKEN_RANDOM.nextBytes(tokenBytes);
+        this.token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+        this.user = user;
+        this.openedAt = LocalDateTime.now();
+    }
+
+    public String getToken() { return token; }
+    public User getUser() { return user; }
+    public Role getRole() { return user.getRole(); }
+    public LocalDateTime getOpenedAt() { return openedAt; }
+
+    void touch() { lastUsedNanos = System.nanoTime(); }
+    long idleNanos() { return System.nanoTime() - lastUsedNanos; }
+
+    @Override
+    public String toString() {
+        return "Session[User: " + user.getUsername() + ", Role: " + user.getRole() + ", Opened: " + openedAt + "]";
+    }
+}
@@ -0,0 +1,207 @@
+package com.hospital.core;
+
+import com.hospital.audit.AuditRecord;
+import com.hospital.metrics.Metrics;
+import com.hospital.metrics.Timer;
+import com.hospital.model.*; // All models
+import com.hospital.observer.EventManager;
+import com.hospital.repository.Page;
+import com.hospital.service.ImportReport;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// The facade with the latency of each public operation recorded (see HospitalManagementFacade.create).
+// Only the Session overloads are timed; the console overloads call them, so they are counted once.
+public class TimedHospitalManagementFacade extends HospitalManagementFacade {
+    private static final Timer OPEN_SESSION_TIMER = Metrics.timer("facade.openSession");
+    private static final Timer CLOSE_SESSION_TIMER = Metrics.timer("facade.closeSession");
+    private static final Timer FIND_SESSION_TIMER = Metrics.timer("facade.findSession");
+    private static final Timer REGISTER_NEW_PATIENT_TIMER = Metrics.timer("facade.registerNewPatient");
+    private static final Timer GET_ALL_PATIENTS_TIMER = Metrics.timer("facade.getAllPatients");
+    private static final Timer GET_PATIENTS_PAGE_TIMER = Metrics.timer("facade.getPatientsPage");
+    private static final Timer SEARCH_PATIENTS_TIMER = Metrics.timer("facade.searchPatients");
+    private static final Timer FIND_PATIENT_BY_ID_TIMER = Metrics.timer("facade.findPatientById");
+    private static final Timer ADD_NEW_DOCTOR_TIMER = Metrics.timer("facade.addNewDoctor");
+    private static final Timer IMPORT_PATIENTS_TIMER = Metrics.timer("facade.importPatients");
+    private static final Timer IMPORT_DOCTORS_TIMER = Metrics.timer("facade.importDoctors");
+    private static final Timer GET_ALL_DOCTORS_TIMER = Metrics.timer("facade.getAllDoctors");
+    private static final Timer GET_DOCTORS_PAGE_TIMER = Metrics.timer("facade.getDoctorsPage");
+    private static final Timer FIND_DOCTOR_BY_ID_TIMER = Metrics.timer("facade.findDoctorById");
+    private static final Timer SCHEDULE_NEW_APPOINTMENT_TIMER = Metrics.timer("facade.scheduleNewAppointment");
+    private static final Timer GET_ALL_APPOINTMENTS_TIMER = Metrics.timer("facade.getAllAppointments");
+    private static final Timer GET_APPOINTMENTS_PAGE_TIMER = Metrics.timer("facade.getAppointmentsPage");
+    private static final Timer FIND_APPOINTMENT_BY_ID_TIMER = Metrics.timer("facade.findAppointmentById");
+    private static final Timer GET_APPOINTMENTS_FOR_PATIENT_TIMER = Metrics.timer("facade.getAppointmentsForPatient");
+    private static final Timer GET_UPCOMING_APPOINTMENTS_FOR_PATIENT_TIMER = Metrics.timer("facade.getUpcomingAppointmentsForPatient");
+    private static final Timer GET_APPOINTMENTS_FOR_PATIENT_BETWEEN_TIMER = Metrics.timer("facade.getAppointmentsForPatientBetween");
+    private static final Timer GET_APPOINTMENTS_FOR_DOCTOR_TIMER = Metrics.timer("facade.getAppointmentsForDoctor");
+    private static final Timer PROCESS_APPOINTMENT_ACTION_TIMER = Metrics.timer("facade.processAppointmentAction");
+    private static final Timer CANCEL_APPOINTMENT_BY_STAFF_TIMER = Metrics.timer("facade.cancelAppointmentByStaff");
+    private static final Timer PROCESS_APPOINTMENT_ACTIONS_TIMER = Metrics.timer("facade.processAppointmentActions");
+    private static final Timer CANCEL_APPOINTMENTS_BY_STAFF_TIMER = Metrics.timer("facade.cancelAppointmentsByStaff");
+    private static final Timer QUERY_AUDIT_LOG_TIMER = Metrics.timer("facade.queryAuditLog");
+
+    public TimedHospitalManagementFacade(EventManager eventManager) {
+        super(eventManager);
+    }
+
+    private static <T> T timed(Timer timer, Supplier<T> operation) {
+        long start = Metrics.start();
+        try {
+            return operation.get();
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    private static void timed(Timer timer, Runnable operation) {
+        long start = Metrics.start();
+        try {
+            operation.run();
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    @Override
+    public Session openSession(String username, String password) {
+        return timed(OPEN_SESSION_TIMER, () -> super.openSession(username, password));
+    }
+
+    @Override
+    public void closeSession(Session session) {
+        timed(CLOSE_SESSION_TIMER, () -> super.closeSession(session));
+    }
+
+    @Override
+    public Optional<Session> findSession(String token) {
+        return timed(FIND_SESSION_TIMER, () -> super.findSession(token));
+    }
+
+    @Override
+    public Patient registerNewPatient(Session session, String name, String contactNumber, int age, String gender, String address) {
+        return timed(REGISTER_NEW_PATIENT_TIMER, () -> super.registerNewPatient(session, name, contactNumber, age, gender, address));
+    }
+
+    @Override
+    public List<Patient> getAllPatients(Session session) {
+        return timed(GET_ALL_PATIENTS_TIMER, () -> super.getAllPatients(session));
+    }
+
+    @Override
+    public Page<Patient> getPatientsPage(Session session, String cursor, int pageSize) {
+        return timed(GET_PATIENTS_PAGE_TIMER, () -> super.getPatientsPage(session, cursor, pageSize));
+    }
+
+    @Override
+    public List<Patient> searchPatients(Session session, String query, int limit) {
+        return timed(SEARCH_PATIENTS_TIMER, () -> super.searchPatients(session, query, limit));
+    }
+
+    @Override
+    public Optional<Patient> findPatientById(Session session, String patientId) {
+        return timed(FIND_PATIENT_BY_ID_TIMER, () -> super.findPatientById(session, patientId));
+    }
+
+    @Override
+    public Doctor addNewDoctor(Session session, String name, String contactNumber, String specialization, String department) {
+        return timed(ADD_NEW_DOCTOR_TIMER, () -> super.addNewDoctor(session, name, contactNumber, specialization, department));
+    }
+
+    @Override
+    public ImportReport<Patient> importPatients(Session session, Path csvFile) {
+        return timed(IMPORT_PATIENTS_TIMER, () -> super.importPatients(session, csvFile));
+    }
+
+    @Override
+    public ImportReport<Doctor> importDoctors(Session session, Path csvFile) {
+        return timed(IMPORT_DOCTORS_TIMER, () -> super.importDoctors(session, csvFile));
+    }
+
+    @Override
+    public List<Doctor> getAllDoctors(Session session) {
+        return timed(GET_ALL_DOCTORS_TIMER, () -> super.getAllDoctors(session));
+    }
+
+    @Override
+    public Page<Doctor> getDoctorsPage(Session session, String cursor, int pageSize) {
+        return timed(GET_DOCTORS_PAGE_TIMER, () -> super.getDoctorsPage(session, cursor, pageSize));
+    }
+
+    @Override
+    public Optional<Doctor> findDoctorById(Session session, String doctorId) {
+        return timed(FIND_DOCTOR_BY_ID_TIMER, () -> super.findDoctorById(session, doctorId));
+    }
+
+    @Override
+    public Appointment scheduleNewAppointment(Session session, String patientId, String doctorId, LocalDateTime dateTime, String description) {
+        return timed(SCHEDULE_NEW_APPOINTMENT_TIMER, () -> super.scheduleNewAppointment(session, patientId, doctorId, dateTime, description));
+    }
+
+    @Override
+    public List<Appointment> getAllAppointments(Session session) {
+        return timed(GET_ALL_APPOINTMENTS_TIMER, () -> super.getAllAppointments(session));
+    }
+
+    @Override
+    public Page<Appointment> getAppointmentsPage(Session session, String cursor, int pageSize) {
+        return timed(GET_APPOINTMENTS_PAGE_TIMER, () -> super.getAppointmentsPage(session, cursor, pageSize));
+    }
+
+    @Override
+    public Optional<Appointment> findAppointmentById(Session session, String appointmentId) {
+        return timed(FIND_APPOINTMENT_BY_ID_TIMER, () -> super.findAppointmentById(session, appointmentId));
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsForPatient(Session session, String patientId) {
+        return timed(GET_APPOINTMENTS_FOR_PATIENT_TIMER, () -> super.getAppointmentsForPatient(session, patientId));
+    }
+
+    @Override
+    public List<Appointment> getUpcomingAppointmentsForPatient(Session session, String patientId) {
+        return timed(GET_UPCOMING_APPOINTMENTS_FOR_PATIENT_TIMER, () -> super.getUpcomingAppointmentsForPatient(session, patientId));
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsForPatientBetween(Session session, String patientId, LocalDateTime from, LocalDateTime to) {
+        return timed(GET_APPOINTMENTS_FOR_PATIENT_BETWEEN_TIMER, () -> super.getAppointmentsForPatientBetween(session, patientId, from, to));
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsForDoctor(Session session, String doctorId, AppointmentStatus statusFilter) {
+        return timed(GET_APPOINTMENTS_FOR_DOCTOR_TIMER, () -> super.getAppointmentsForDoctor(session, doctorId, statusFilter));
+    }
+
+    @Override
+    public boolean processAppointmentAction(Session session, String appointmentId, String action) {
+        return timed(PROCESS_APPOINTMENT_ACTION_TIMER, () -> super.processAppointmentAction(session, appointmentId, action));
+    }
+
+    @Override
+    public boolean cancelAppointmentByStaff(Session session, String appointmentId) {
+        return timed(CANCEL_APPOINTMENT_BY_STAFF_TIMER, () -> super.cancelAppointmentByStaff(session, appointmentId));
+    }
+
+    @Override
+    public Map<String, AppointmentActionOutcome> processAppointmentActions(Session session, Collection<String> appointmentIds, String action) {
+        return timed(PROCESS_APPOINTMENT_ACTIONS_TIMER, () -> super.processAppointmentActions(session, appointmentIds, action));
+    }
+
+    @Override
+    public Map<String, AppointmentActionOutcome> cancelAppointmentsByStaff(Session session, Collection<String> appointmentIds) {
+        return timed(CANCEL_APPOINTMENTS_BY_STAFF_TIMER, () -> super.cancelAppointmentsByStaff(session, appointmentIds));
+    }
+
+    @Override
+    public Page<AuditRecord> queryAuditLog(Session session, String eventType, String actor, String entityId,
+                                           LocalDateTime from, LocalDateTime to, String cursor, int pageSize) {
+        return timed(QUERY_AUDIT_LOG_TIMER, () -> super.queryAuditLog(session, eventType, actor, entityId, from, to, cursor, pageSize));
+    }
+}
@@ -1,6 +1,7 @@
 package com.hospital.factory;
 
 import com.hospital.model.*;
+import com.hospital.security.PasswordHasher;
 import java.time.LocalDateTime;
 
 public class HospitalEntityFactory implements EntityFactory {
@@ -22,6 +23,7 @@ public class HospitalEntityFactory implements EntityFactory {
 
     @Override
     public User createUser(String username, String password, Role role, String entityId) {
-        return new User(username, password, role, entityId);
+        // Only the salted hash of the plain-text password is kept on the User
+        return new User(username, PasswordHasher.hash(password), role, entityId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,560 @@
+package com.hospital.http;
+
+import com.hospital.audit.AuditRecord;
+import com.hospital.core.AppointmentActionOutcome;
+import com.hospital.core.HospitalManagementFacade;
+import com.hospital.core.Session;
+import com.hospital.metrics.Metrics;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.model.Role;
+import com.hospital.observer.ActivityLogger;
+import com.hospital.observer.EventManager;
+import com.hospital.repository.Page;
+import com.hospital.service.FileManager;
+import com.hospital.util.Threads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+// JSON-over-HTTP front end for kiosks and web clients, on the JDK's built-in com.sun.net.httpserver.
+// Every request runs on its own thread (virtual where the runtime has them, see Threads), and all requests share
+// one thread-safe HospitalManagementFacade. POST /api/login returns a session token; every other call sends it as
+// "Authorization: Bearer <token>" and runs with that session's role.
+//
+//   POST /api/login                          {"username", "password"} -> {"token", "username", "role", "entityId"}
+//   POST /api/logout
+//   GET  /api/patients?cursor=&limit=        page of patients: {"items": [...], "nextCursor": ...}
+//   GET  /api/patients?q=&limit=             name/phone search, best matches first: [...]
+//   POST /api/patients                       {"name", "contactNumber", "age", "gender", "address"} (staff)
+//   GET  /api/patients/{id}
+//   GET  /api/patients/{id}/appointments     ?upcoming=true, or ?from=&to= (ISO date-times)
+//   GET  /api/doctors?cursor=&limit=
+//   POST /api/doctors                        {"name", "contactNumber", "specialization", "department"} (staff)
+//   GET  /api/doctors/{id}
+//   GET  /api/doctors/{id}/appointments      ?status=PENDING_APPROVAL|... (staff, or that doctor)
+//   GET  /api/appointments?cursor=&limit=    (staff)
+//   POST /api/appointments                   {"patientId", "doctorId", "dateTime", "description"} (staff)
+//   GET  /api/appointments/{id}
+//   POST /api/appointments/{id}/accept       (assigned doctor; likewise /reject)
+//   POST /api/appointments/{id}/cancel       (staff)
+//   POST /api/appointments/batch             {"action": "ACCEPT|REJECT|CANCEL", "appointmentIds": [...]} -> outcome per ID
+//   GET  /api/audit?type=&actor=&entity=&from=&to=&cursor=&limit=   audit records, oldest first (staff)
+//
+// Errors come back as {"error": "..."} with 400 (bad input), 401 (no or unknown token), 403 (wrong role),
+// 404 (unknown ID or path), 405, 409 (slot taken, or the appointment is not in a state that allows the action),
+// 413 (body over 64 KB) or 500.
+public class HospitalHttpServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    static {
+        // The JDK server writes response headers and body separately; without TCP_NODELAY, Nagle's algorithm holds
+        // the body back until the client's delayed ACK (~40 ms on Linux), which would cap each connection at ~25 req/s.
+        // It is read once when the server implementation loads, so it has to be set before the first HttpServer.create.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HospitalManagementFacade facade;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HospitalHttpServer(HospitalManagementFacade facade, int port) throws IOException {
+        this.facade = facade;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Threads.newPerTaskExecutor("http");
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("INFO: HTTP API listening on port " + getPort() + ".");
+    }
+
+    // Waits up to the given number of seconds for running requests, then closes the listener.
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Standalone server: java -cp out com.hospital.http.HospitalHttpServer (-Dhospital.http.port, default 8080)
+    public static void main(String[] args) throws IOException {
+        EventManager eventManager = new EventManager();
+        eventManager.registerObserver(new ActivityLogger());
+        HospitalManagementFacade facade = HospitalManagementFacade.create(eventManager);
+        HospitalHttpServer httpServer = new HospitalHttpServer(facade, Integer.getInteger("hospital.http.port", 8080));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            httpServer.stop(1);
+            eventManager.shutdown(); // Delivers queued events when dispatch is asynchronous
+            FileManager.getInstance().flushActivityLog();
+            Metrics.dump();
+        }));
+        httpServer.start();
+    }
+
+    // --- Request handling ---
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Response response = route(exchange);
+            send(exchange, response.status, response.body);
+        } catch (ApiException e) {
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException e) { // Malformed JSON, numbers, enums, cursors
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+            send(exchange, 500, error("Internal server error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = segments(exchange.getRequestURI().getRawPath());
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        if (path.length == 1 && path[0].equals("login")) {
+            requireMethod(method, "POST");
+            return login(readObject(exchange));
+        }
+        Session session = authenticate(exchange);
+        String resource = path.length > 0 ? path[0] : "";
+        switch (resource) {
+            case "logout":
+                requireMethod(method, "POST");
+                if (path.length != 1) break;
+                facade.closeSession(session);
+                return new Response(204, null);
+            case "patients":
+                return patients(session, method, path, query, exchange);
+            case "doctors":
+                return doctors(session, method, path, query, exchange);
+            case "appointments":
+                return appointments(session, method, path, query, exchange);
+            case "audit":
+                requireMethod(method, "GET");
+                if (path.length != 1) break;
+                return audit(session, query);
+            default:
+                break;
+        }
+        throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    private Response login(Map<String, Object> body) {
+        Session session = facade.openSession(string(body, "username"), string(body, "password"));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("token", session.getToken());
+        json.put("username", session.getUser().getUsername());
+        json.put("role", session.getRole());
+        json.put("entityId", session.getUser().getEntityId());
+        return new Response(200, json);
+    }
+
+    private Response patients(Session session, String method, String[] path, Map<String, String> query, HttpExchange exchange) throws IOException {
+        if (path.length == 1 && method.equals("GET") && query.containsKey("q")) {
+            return new Response(200, list(facade.searchPatients(session, query.get("q"), pageSize(query)), HospitalHttpServer::patientJson));
+        }
+        if (path.length == 1 && method.equals("GET")) {
+            Page<Patient> page = facade.getPatientsPage(session, query.get("cursor"), pageSize(query));
+            return new Response(200, page(page, HospitalHttpServer::patientJson));
+        }
+        if (path.length == 1) {
+            requireMethod(method, "POST");
+            requireRole(session, Role.STAFF);
+            Map<String, Object> body = readObject(exchange);
+            int age = (int) number(body, "age", 0, 150);
+            Patient patient = facade.registerNewPatient(session, string(body, "name"), string(body, "contactNumber"), age,
+                    string(body, "gender"), string(body, "address"));
+            if (patient == null) {
+                throw new ApiException(500, "Patient could not be registered");
+            }
+            return new Response(201, patientJson(patient));
+        }
+        requireMethod(method, "GET");
+        Patient patient = facade.findPatientById(session, path[1])
+                .orElseThrow(() -> new ApiException(404, "Patient not found: " + path[1]));
+        if (path.length == 2) {
+            return new Response(200, patientJson(patient));
+        }
+        if (path.length == 3 && path[2].equals("appointments")) {
+            List<Appointment> found;
+            if (Boolean.parseBoolean(query.get("upcoming"))) {
+                found = facade.getUpcomingAppointmentsForPatient(session, patient.getId());
+            } else if (query.containsKey("from") || query.containsKey("to")) {
+                LocalDateTime from = dateTime(query.getOrDefault("from", LocalDateTime.MIN.toString()), "from");
+                LocalDateTime to = dateTime(query.getOrDefault("to", LocalDateTime.MAX.toString()), "to");
+                found = facade.getAppointmentsForPatientBetween(session, patient.getId(), from, to);
+            } else {
+                found = facade.getAppointmentsForPatient(session, patient.getId());
+            }
+            return new Response(200, list(found, HospitalHttpServer::appointmentJson));
+        }
+        throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    private Response doctors(Session session, String method, String[] path, Map<String, String> query, HttpExchange exchange) throws IOException {
+        if (path.length == 1 && method.equals("GET")) {
+            Page<Doctor> page = facade.getDoctorsPage(session, query.get("cursor"), pageSize(query));
+            return new Response(200, page(page, HospitalHttpServer::doctorJson));
+        }
+        if (path.length == 1) {
+            requireMethod(method, "POST");
+            requireRole(session, Role.STAFF);
+            Map<String, Object> body = readObject(exchange);
+            Doctor doctor = facade.addNewDoctor(session, string(body, "name"), string(body, "contactNumber"),
+                    string(body, "specialization"), string(body, "department"));
+            if (doctor == null) {
+                throw new ApiException(500, "Doctor could not be added");
+            }
+            return new Response(201, doctorJson(doctor));
+        }
+        requireMethod(method, "GET");
+        Doctor doctor = facade.findDoctorById(session, path[1])
+                .orElseThrow(() -> new ApiException(404, "Doctor not found: " + path[1]));
+        if (path.length == 2) {
+            return new Response(200, doctorJson(doctor));
+        }
+        if (path.length == 3 && path[2].equals("appointments")) {
+            boolean ownAppointments = session.getRole() == Role.DOCTOR && doctor.getId().equals(session.getUser().getEntityId());
+            if (session.getRole() != Role.STAFF && !ownAppointments) {
+                throw new ApiException(403, "Doctors can only list their own appointments");
+            }
+            String status = query.get("status");
+            AppointmentStatus statusFilter = status == null ? null : AppointmentStatus.valueOf(status.toUpperCase());
+            return new Response(200, list(facade.getAppointmentsForDoctor(session, doctor.getId(), statusFilter),
+                    HospitalHttpServer::appointmentJson));
+        }
+        throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    private Response appointments(Session session, String method, String[] path, Map<String, String> query, HttpExchange exchange) throws IOException {
+        if (path.length == 1 && method.equals("GET")) {
+            requireRole(session, Role.STAFF);
+            Page<Appointment> page = facade.getAppointmentsPage(session, query.get("cursor"), pageSize(query));
+            return new Response(200, page(page, HospitalHttpServer::appointmentJson));
+        }
+        if (path.length == 1) {
+            requireMethod(method, "POST");
+            requireRole(session, Role.STAFF);
+            Map<String, Object> body = readObject(exchange);
+            String patientId = string(body, "patientId");
+            String doctorId = string(body, "doctorId");
+            LocalDateTime dateTime = dateTime(string(body, "dateTime"), "dateTime");
+            if (!facade.findPatientById(session, patientId).isPresent()) {
+                throw new ApiException(404, "Patient not found: " + patientId);
+            }
+            if (!facade.findDoctorById(session, doctorId).isPresent()) {
+                throw new ApiException(404, "Doctor not found: " + doctorId);
+            }
+            Appointment appointment = facade.scheduleNewAppointment(session, patientId, doctorId, dateTime, string(body, "description"));
+            if (appointment == null) { // Patient and doctor exist, so the doctor is booked in that slot
+                throw new ApiException(409, "Doctor " + doctorId + " is already booked around " + dateTime);
+            }
+            return new Response(201, appointmentJson(appointment));
+        }
+        if (path.length == 2 && path[1].equals("batch")) {
+            requireMethod(method, "POST");
+            return batch(session, readObject(exchange));
+        }
+        Appointment appointment = facade.findAppointmentById(session, path[1])
+                .orElseThrow(() -> new ApiException(404, "Appointment not found: " + path[1]));
+        if (path.length == 2) {
+            requireMethod(method, "GET");
+            if (session.getRole() == Role.DOCTOR && !appointment.getDoctorId().equals(session.getUser().getEntityId())) {
+                throw new ApiException(403, "Appointment is not assigned to you");
+            }
+            return new Response(200, appointmentJson(appointment));
+        }
+        if (path.length == 3) {
+            requireMethod(method, "POST");
+            String action = path[2].toUpperCase();
+            boolean applied;
+            if (action.equals("ACCEPT") || action.equals("REJECT")) {
+                requireRole(session, Role.DOCTOR);
+                if (!appointment.getDoctorId().equals(session.getUser().getEntityId())) {
+                    throw new ApiException(403, "Appointment is not assigned to you");
+                }
+                applied = facade.processAppointmentAction(session, appointment.getAppointmentId(), action);
+            } else if (action.equals("CANCEL")) {
+                requireRole(session, Role.STAFF);
+                applied = facade.cancelAppointmentByStaff(session, appointment.getAppointmentId());
+            } else {
+                throw new ApiException(404, "Unknown appointment action: " + path[2]);
+            }
+            if (!applied) {
+                throw new ApiException(409, "Cannot " + action.toLowerCase() + " an appointment in status " + appointment.getStatus());
+            }
+            return new Response(200, appointmentJson(appointment));
+        }
+        throw new ApiException(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    private Response batch(Session session, Map<String, Object> body) {
+        String action = string(body, "action").toUpperCase();
+        Object ids = body.get("appointmentIds");
+        if (!(ids instanceof List)) {
+            throw new ApiException(400, "appointmentIds must be an array of IDs");
+        }
+        List<String> appointmentIds = new ArrayList<>();
+        for (Object id : (List<?>) ids) {
+            if (!(id instanceof String)) {
+                throw new ApiException(400, "appointmentIds must be an array of IDs");
+            }
+            appointmentIds.add((String) id);
+        }
+        Map<String, AppointmentActionOutcome> outcomes;
+        if (action.equals("ACCEPT") || action.equals("REJECT")) {
+            requireRole(session, Role.DOCTOR);
+            outcomes = facade.processAppointmentActions(session, appointmentIds, action);
+        } else if (action.equals("CANCEL")) {
+            requireRole(session, Role.STAFF);
+            outcomes = facade.cancelAppointmentsByStaff(session, appointmentIds);
+        } else {
+            throw new ApiException(400, "action must be ACCEPT, REJECT or CANCEL");
+        }
+        return new Response(200, outcomes);
+    }
+
+    // Every filter is optional; from and to are inclusive ISO date-times.
+    private Response audit(Session session, Map<String, String> query) {
+        requireRole(session, Role.STAFF);
+        LocalDateTime from = query.containsKey("from") ? dateTime(query.get("from"), "from") : null;
+        LocalDateTime to = query.containsKey("to") ? dateTime(query.get("to"), "to") : null;
+        Page<AuditRecord> page = facade.queryAuditLog(session, query.get("type"), query.get("actor"), query.get("entity"),
+                from, to, query.get("cursor"), pageSize(query));
+        return new Response(200, page(page, HospitalHttpServer::auditJson));
+    }
+
+    // --- Sessions and validation ---
+    private Session authenticate(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            throw new ApiException(401, "Missing bearer token; log in with POST /api/login");
+        }
+        return facade.findSession(authorization.substring(7).trim())
+                .orElseThrow(() -> new ApiException(401, "Unknown or expired session token"));
+    }
+
+    private static void requireRole(Session session, Role role) {
+        if (session.getRole() != role) {
+            throw new ApiException(403, "Only " + role + " users can do this");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Method " + method + " not allowed here");
+        }
+    }
+
+    private static String string(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            throw new ApiException(400, field + " is required");
+        }
+        return ((String) value).trim();
+    }
+
+    private static long number(Map<String, Object> body, String field, long min, long max) {
+        Object value = body.get(field);
+        if (!(value instanceof Long) || (Long) value < min || (Long) value > max) {
+            throw new ApiException(400, field + " must be a whole number between " + min + " and " + max);
+        }
+        return (Long) value;
+    }
+
+    private static LocalDateTime dateTime(String value, String field) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, field + " must be an ISO date-time like 2030-01-31T09:30: " + value);
+        }
+    }
+
+    private static int pageSize(Map<String, String> query) {
+        String limit = query.get("limit");
+        return limit == null ? DEFAULT_PAGE_SIZE : Integer.parseInt(limit); // The facade caps it
+    }
+
+    // --- JSON views of the model ---
+    private static Map<String, Object> patientJson(Patient patient) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", patient.getId());
+        json.put("name", patient.getName());
+        json.put("contactNumber", patient.getContactNumber());
+        json.put("age", patient.getAge());
+        json.put("gender", patient.getGender());
+        json.put("address", patient.getAddress());
+        return json;
+    }
+
+    private static Map<String, Object> doctorJson(Doctor doctor) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", doctor.getId());
+        json.put("name", doctor.getName());
+        json.put("contactNumber", doctor.getContactNumber());
+        json.put("specialization", doctor.getSpecialization());
+        json.put("department", doctor.getDepartment());
+        return json;
+    }
+
+    private static Map<String, Object> appointmentJson(Appointment appointment) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("appointmentId", appointment.getAppointmentId());
+        json.put("patientId", appointment.getPatientId());
+        json.put("doctorId", appointment.getDoctorId());
+        json.put("dateTime", appointment.getDateTime());
+        json.put("description", appointment.getDescription());
+        json.put("status", appointment.getStatus());
+        return json;
+    }
+
+    private static Map<String, Object> auditJson(AuditRecord record) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("sequence", record.getSequence());
+        json.put("timestamp", record.getTimestamp());
+        json.put("eventType", record.getEventType());
+        json.put("actor", record.getActor());
+        json.put("entityIds", record.getEntityIds());
+        json.put("details", record.getDetails());
+        return json;
+    }
+
+    private static <T> List<Object> list(List<T> items, java.util.function.Function<T, Map<String, Object>> toJson) {
+        List<Object> json = new ArrayList<>(items.size());
+        for (T item : items) {
+            json.add(toJson.apply(item));
+        }
+        return json;
+    }
+
+    private static <T> Map<String, Object> page(Page<T> page, java.util.function.Function<T, Map<String, Object>> toJson) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("items", list(page.getItems(), toJson));
+        json.put("nextCursor", page.getNextCursor());
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+
+    // --- HTTP plumbing ---
+    private static Map<String, Object> readObject(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        Object json = Json.parse(body.toString(StandardCharsets.UTF_8.name()));
+        if (!(json instanceof Map)) {
+            throw new ApiException(400, "Request body must be a JSON object");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) json;
+        return object;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // "/api/patients/PAT-1/appointments" -> {"patients", "PAT-1", "appointments"}
+    private static String[] segments(String rawPath) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.substring("/api/".length()).split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(decode(segment));
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+                } else if (!pair.isEmpty()) {
+                    parameters.put(decode(pair), "");
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 not available", e); // Part of every Java SE runtime
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final Object body; // null for an empty response
+
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
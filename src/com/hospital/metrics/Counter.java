@@ -0,0 +1,28 @@
+package com.hospital.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic event count (e.g. successful logins). Does nothing when metrics are disabled.
+public class Counter implements CounterMBean {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) {
+            count.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,6 @@
+package com.hospital.metrics;
+
+// JMX view of a Counter.
+public interface CounterMBean {
+    long getCount();
+}
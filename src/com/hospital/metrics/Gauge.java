@@ -0,0 +1,27 @@
+package com.hospital.metrics;
+
+import java.util.function.LongSupplier;
+
+// Current value read on demand (e.g. event queue depth), so it costs nothing between reads.
+public class Gauge implements GaugeMBean {
+    private final String name;
+    private volatile LongSupplier value;
+
+    Gauge(String name, LongSupplier value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    void setSupplier(LongSupplier value) {
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
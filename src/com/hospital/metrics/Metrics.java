@@ -0,0 +1,160 @@
+package com.hospital.metrics;
+
+import com.hospital.util.Threads;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+// Process-wide registry of latency timers, counters and gauges, named like "facade.findPatientById".
+// Off by default (-Dhospital.metrics.enabled=true turns it on). ENABLED is a static final flag, so when it is off
+// the JIT folds every start()/stop()/increment() down to nothing and no metric records anything.
+// When on, every metric is also registered as a JMX MBean (com.hospital:type=Timer|Counter|Gauge,name=...), and a
+// background thread appends a snapshot to the dump file every hospital.metrics.dumpIntervalSeconds (default 60,
+// 0 = never) - by default metrics.log in the data directory.
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("hospital.metrics.enabled");
+    private static final long DUMP_INTERVAL_SECONDS = Long.getLong("hospital.metrics.dumpIntervalSeconds", 60);
+    private static final Path DUMP_FILE = Paths.get(System.getProperty("hospital.metrics.dumpFile",
+            System.getProperty("hospital.data.dir", "data") + "/metrics.log"));
+    private static final DateTimeFormatter DUMP_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Sorted by name, so dumps list related metrics together
+    private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    // Counts at the previous report, for per-second rates (guarded by the class lock)
+    private static final Map<String, Long> previousCounts = new HashMap<>();
+    private static long previousReportNanos = System.nanoTime();
+
+    static {
+        if (ENABLED && DUMP_INTERVAL_SECONDS > 0) {
+            Threads.start("metrics-dump", Metrics::dumpPeriodically);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // Start time for Timer.stop(); 0 without reading the clock when metrics are disabled.
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> register(new Timer(n), "Timer", n));
+    }
+
+    // For call sites whose metric name is only known at run time (e.g. per data file); no lookup when disabled.
+    public static void record(String timerName, long start) {
+        if (ENABLED) {
+            timer(timerName).stop(start);
+        }
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> register(new Counter(n), "Counter", n));
+    }
+
+    // Registering a gauge name again replaces its value source (e.g. when a new facade takes over).
+    public static void gauge(String name, LongSupplier value) {
+        Gauge existing = gauges.putIfAbsent(name, new Gauge(name, value));
+        if (existing != null) {
+            existing.setSupplier(value);
+        } else {
+            register(gauges.get(name), "Gauge", name);
+        }
+    }
+
+    // Text snapshot of every metric; rates are per second since the previous report.
+    public static synchronized String report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - previousReportNanos) / 1e9);
+        previousReportNanos = now;
+        StringBuilder report = new StringBuilder();
+        report.append("=== Metrics at ").append(LocalDateTime.now().withNano(0).format(DUMP_TIME))
+              .append(String.format(Locale.ROOT, " (latencies since start, rates over the last %.1f s) ===%n", seconds));
+        for (Timer timer : timers.values()) {
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            report.append(String.format(Locale.ROOT,
+                    "TIMER   %-44s count=%d rate=%.1f/s mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    timer.getName(), snapshot.getCount(), rate(timer.getName(), snapshot.getCount(), seconds),
+                    snapshot.getMean() / 1e3, snapshot.getValueAtPercentile(50) / 1e3, snapshot.getValueAtPercentile(90) / 1e3,
+                    snapshot.getValueAtPercentile(99) / 1e3, snapshot.getValueAtPercentile(99.9) / 1e3, snapshot.getMax() / 1e3));
+        }
+        for (Counter counter : counters.values()) {
+            long count = counter.getCount();
+            report.append(String.format(Locale.ROOT, "COUNTER %-44s count=%d rate=%.1f/s%n",
+                    counter.getName(), count, rate(counter.getName(), count, seconds)));
+        }
+        for (Gauge gauge : gauges.values()) {
+            report.append(String.format(Locale.ROOT, "GAUGE   %-44s value=%d%n", gauge.getName(), gauge.getValue()));
+        }
+        return report.toString();
+    }
+
+    // Appends a report to the dump file. Does nothing when metrics are disabled.
+    public static void dump() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            if (DUMP_FILE.getParent() != null) {
+                Files.createDirectories(DUMP_FILE.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(DUMP_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(report());
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing metrics to " + DUMP_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static double rate(String name, long count, double seconds) {
+        Long previous = previousCounts.put(name, count);
+        return (count - (previous == null ? 0 : previous)) / seconds;
+    }
+
+    private static void dumpPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(DUMP_INTERVAL_SECONDS * 1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            dump();
+        }
+    }
+
+    private static <T> T register(T mbean, String type, String name) {
+        if (ENABLED) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName("com.hospital:type=" + type + ",name=" + name);
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(mbean, objectName);
+                }
+            } catch (JMException e) {
+                System.err.println("Could not register metric " + name + " with JMX: " + e.getMessage());
+            }
+        }
+        return mbean;
+    }
+}
@@ -0,0 +1,46 @@
+package com.hospital.metrics;
+
+// Latency histogram of one operation. Usage:
+//   long start = Metrics.start();
+//   try { ... } finally { TIMER.stop(start); }
+// Both calls do nothing when metrics are disabled. TimedHospitalManagementFacade wraps every facade operation this way.
+public class Timer implements TimerMBean {
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        if (Metrics.ENABLED) {
+            histogram.record(nanos);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    @Override public long getCount() { return histogram.getCount(); }
+    @Override public double getMeanMicros() { return snapshot().getMean() / 1e3; }
+    @Override public double getP50Micros() { return percentileMicros(50); }
+    @Override public double getP90Micros() { return percentileMicros(90); }
+    @Override public double getP99Micros() { return percentileMicros(99); }
+    @Override public double getP999Micros() { return percentileMicros(99.9); }
+    @Override public double getMaxMicros() { return snapshot().getMax() / 1e3; }
+
+    private double percentileMicros(double percentile) {
+        return snapshot().getValueAtPercentile(percentile) / 1e3;
+    }
+}
@@ -0,0 +1,12 @@
+package com.hospital.metrics;
+
+// JMX view of a Timer. Times are in microseconds.
+public interface TimerMBean {
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
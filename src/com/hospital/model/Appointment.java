@@ -1,6 +1,8 @@
 package com.hospital.model;
 
 import com.hospital.state.*;
+import com.hospital.util.RecordFields;
+import com.hospital.util.Timestamps;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -11,7 +13,8 @@ public class Appointment {
     private String doctorId;
     private LocalDateTime dateTime;
     private String description;
-    private AppointmentState currentState;
+    private volatile AppointmentState currentState; // Changed under the doctor's lock, read from any thread
+    private volatile AppointmentStatusListener statusListener; // e.g. a repository keeping status indexes in sync
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
@@ -21,7 +24,7 @@ public class Appointment {
         this.doctorId = doctorId;
         this.dateTime = dateTime;
         this.description = description;
-        this.currentState = new PendingApprovalState(); // Default initial state
+        this.currentState = PendingApprovalState.INSTANCE; // Default initial state
     }
 
     public Appointment(String appointmentId, String patientId, String doctorId, LocalDateTime dateTime, String description, AppointmentStatus status) {
@@ -30,7 +33,7 @@ public class Appointment {
         this.doctorId = doctorId;
         this.dateTime = dateTime;
         this.description = description;
-        setCurrentStateFromStatus(status);
+        this.currentState = AppointmentState.forStatus(status); // Shared state instance, nothing allocated per appointment
     }
 
     public String getAppointmentId() { return appointmentId; }
@@ -41,42 +44,27 @@ public class Appointment {
     public AppointmentStatus getStatus() { return currentState.getStatus(); }
 
     public void setCurrentState(AppointmentState state) {
+        AppointmentStatus oldStatus = currentState != null ? currentState.getStatus() : null;
         this.currentState = state;
+        if (statusListener != null && oldStatus != state.getStatus()) {
+            statusListener.statusChanged(this, oldStatus, state.getStatus());
+        }
     }
 
-    private void setCurrentStateFromStatus(AppointmentStatus status) {
-        if (status == null) { // Should not happen with valid data
-            this.currentState = new PendingApprovalState();
-            return;
-        }
-        switch (status) {
-            case PENDING_APPROVAL:
-                this.currentState = new PendingApprovalState();
-                break;
-            case ACCEPTED:
-                this.currentState = new AcceptedState();
-                break;
-            case REJECTED:
-                this.currentState = new RejectedState();
-                break;
-            case CANCELLED_BY_STAFF:
-            // case COMPLETED: // If you add a CompletedState
-            default:
-                this.currentState = new CancelledState();
-                break;
-        }
+    public void setStatusListener(AppointmentStatusListener statusListener) {
+        this.statusListener = statusListener;
     }
 
-    public void acceptAppointment(String actorId) {
-        currentState.accept(this, actorId);
+    public TransitionResult acceptAppointment(String actorId) {
+        return currentState.accept(this, actorId);
     }
 
-    public void rejectAppointment(String actorId) {
-        currentState.reject(this, actorId);
+    public TransitionResult rejectAppointment(String actorId) {
+        return currentState.reject(this, actorId);
     }
 
-    public void cancelAppointment(String actorId) {
-        currentState.cancel(this, actorId);
+    public TransitionResult cancelAppointment(String actorId) {
+        return currentState.cancel(this, actorId);
     }
 
     @Override
@@ -87,14 +75,14 @@ public class Appointment {
     }
 
     public String toFileString() {
-        return String.join(",", appointmentId, patientId, doctorId, dateTime.format(formatter), description, getStatus().name());
+        return RecordFields.join(appointmentId, patientId, doctorId, Timestamps.format(dateTime), description, getStatus().name());
     }
 
     public static Appointment fromFileString(String fileString) {
-        String[] parts = fileString.split(",");
-        if (parts.length == 6) {
+        String[] parts = RecordFields.split(fileString, 6);
+        if (parts != null) {
             try {
-                LocalDateTime dt = LocalDateTime.parse(parts[3], formatter);
+                LocalDateTime dt = Timestamps.parse(parts[3]);
                 AppointmentStatus status = AppointmentStatus.valueOf(parts[5].toUpperCase());
                 return new Appointment(parts[0], parts[1], parts[2], dt, parts[4], status);
             } catch (DateTimeParseException e) {
@@ -0,0 +1,6 @@
+package com.hospital.model;
+
+// Notified by an Appointment whenever a state transition changes its status.
+public interface AppointmentStatusListener {
+    void statusChanged(Appointment appointment, AppointmentStatus oldStatus, AppointmentStatus newStatus);
+}
@@ -1,5 +1,7 @@
 package com.hospital.model;
 
+import com.hospital.util.RecordFields;
+
 public class Doctor extends Person {
     private String specialization;
     private String department;
@@ -23,12 +25,12 @@ public class Doctor extends Person {
 
     @Override
     public String toFileString() {
-        return String.join(",", id, name, contactNumber, specialization, department);
+        return RecordFields.join(id, name, contactNumber, specialization, department);
     }
 
     public static Doctor fromFileString(String fileString) {
-        String[] parts = fileString.split(",");
-        if (parts.length == 5) {
+        String[] parts = RecordFields.split(fileString, 5);
+        if (parts != null) {
             return new Doctor(parts[0], parts[1], parts[2], parts[3], parts[4]);
         }
         System.err.println("Error parsing doctor from string: " + fileString);
@@ -1,5 +1,7 @@
 package com.hospital.model;
 
+import com.hospital.util.RecordFields;
+
 public class Patient extends Person {
     private int age;
     private String gender;
@@ -27,12 +29,12 @@ public class Patient extends Person {
 
     @Override
     public String toFileString() {
-        return String.join(",", id, name, contactNumber, String.valueOf(age), gender, address);
+        return RecordFields.join(id, name, contactNumber, String.valueOf(age), gender, address);
     }
 
     public static Patient fromFileString(String fileString) {
-        String[] parts = fileString.split(",");
-        if (parts.length == 6) {
+        String[] parts = RecordFields.split(fileString, 6);
+        if (parts != null) {
             try {
                 return new Patient(parts[0], parts[1], parts[2], Integer.parseInt(parts[3]), parts[4], parts[5]);
             } catch (NumberFormatException e) {
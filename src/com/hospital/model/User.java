@@ -1,24 +1,26 @@
 package com.hospital.model;
 
+import com.hospital.util.RecordFields;
+
 public class User {
     private String username;
-    private String password; // In a real system, this should be a hashed password.
+    private String passwordHash; // Salted PBKDF2 hash, see com.hospital.security.PasswordHasher
     private Role role;
     private String entityId; // Optional: Link to Doctor ID if role is DOCTOR
 
-    public User(String username, String password, Role role, String entityId) {
+    public User(String username, String passwordHash, Role role, String entityId) {
         this.username = username;
-        this.password = password;
+        this.passwordHash = passwordHash;
         this.role = role;
         this.entityId = entityId; // Can be null for staff
     }
 
-    public User(String username, String password, Role role) {
-        this(username, password, role, null);
+    public User(String username, String passwordHash, Role role) {
+        this(username, passwordHash, role, null);
     }
 
     public String getUsername() { return username; }
-    public String getPassword() { return password; }
+    public String getPasswordHash() { return passwordHash; }
     public Role getRole() { return role; }
     public String getEntityId() { return entityId; }
 
@@ -29,12 +31,12 @@ public class User {
     }
 
     public String toFileString() {
-        return String.join(",", username, password, role.name(), entityId == null ? "null" : entityId);
+        return RecordFields.join(username, passwordHash, role.name(), entityId == null ? "null" : entityId);
     }
 
     public static User fromFileString(String fileString) {
-        String[] parts = fileString.split(",", -1);
-        if (parts.length == 4) {
+        String[] parts = RecordFields.split(fileString, 4);
+        if (parts != null) {
             try {
                 String entityId = parts[3].equals("null") ? null : parts[3];
                 return new User(parts[0], parts[1], Role.valueOf(parts[2].toUpperCase()), entityId);
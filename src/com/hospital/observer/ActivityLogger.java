@@ -3,6 +3,9 @@ package com.hospital.observer;
 import com.hospital.service.FileManager;
 
 public class ActivityLogger implements Observer {
+    // Echo every logged event to the console; turn off with -Dhospital.console.events=false when stdout is not watched.
+    static final boolean CONSOLE_ECHO = Boolean.parseBoolean(System.getProperty("hospital.console.events", "true"));
+
     private FileManager fileManager;
 
     public ActivityLogger() {
@@ -13,6 +16,6 @@ public class ActivityLogger implements Observer {
     public void update(String eventType, Object data) {
         String logMessage = "Event: " + eventType + " | Data: " + data.toString();
         fileManager.logActivity(logMessage);
-        System.out.println("ACTIVITY_LOGGER: Logged - " + logMessage.substring(0, Math.min(logMessage.length(), 100)) + (logMessage.length() > 100 ? "..." : "")); // Print shortened log to console
+        if (CONSOLE_ECHO) System.out.println("ACTIVITY_LOGGER: Logged - " + logMessage.substring(0, Math.min(logMessage.length(), 100)) + (logMessage.length() > 100 ? "..." : "")); // Print shortened log to console
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.hospital.observer;
+
+import com.hospital.audit.AuditEvent;
+import com.hospital.audit.AuditStore;
+
+import java.util.Collections;
+
+// Stores every event in the structured audit trail. Events published with an AuditEvent keep their actor and
+// entity IDs as fields; any other data is stored as text only.
+public class AuditLogger implements Observer {
+    private final AuditStore store;
+
+    public AuditLogger(AuditStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void update(String eventType, Object data) {
+        if (data instanceof AuditEvent) {
+            AuditEvent event = (AuditEvent) data;
+            store.append(eventType, event.getActor(), event.getEntityIds(), event.getAuditDescription());
+        } else {
+            store.append(eventType, null, Collections.emptyList(), String.valueOf(data));
+        }
+    }
+}
@@ -1,33 +1,215 @@
 package com.hospital.observer;
 
+import com.hospital.util.Threads;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class EventManager implements Subject {
-    private List<Observer> observers = new ArrayList<>();
+    // SYNC calls every observer on the publishing thread.
+    // ASYNC gives each observer its own bounded queue and consumer thread (virtual where available):
+    // events reach an observer in publish order, and a full queue makes the publisher wait (backpressure).
+    // Events published while an observer is being unregistered (or after shutdown) reach it on the publishing thread.
+    public enum DispatchMode { SYNC, ASYNC }
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    // Copy-on-write: publishing iterates the current array without copying; (un)registering is rare.
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private final Map<Observer, ObserverQueue> queues = new ConcurrentHashMap<>();
+    private final DispatchMode dispatchMode;
+    private final int queueCapacity;
+
+    // Mode and queue size can be chosen with -Dhospital.events.dispatch=SYNC|ASYNC and -Dhospital.events.queueCapacity.
+    public EventManager() {
+        this(DispatchMode.valueOf(System.getProperty("hospital.events.dispatch", "SYNC").toUpperCase()),
+             Integer.getInteger("hospital.events.queueCapacity", DEFAULT_QUEUE_CAPACITY));
+    }
+
+    public EventManager(DispatchMode dispatchMode, int queueCapacity) {
+        this.dispatchMode = dispatchMode;
+        this.queueCapacity = queueCapacity;
+    }
 
     @Override
-    public void registerObserver(Observer observer) {
+    public synchronized void registerObserver(Observer observer) {
         if (!observers.contains(observer)) {
+            if (dispatchMode == DispatchMode.ASYNC) {
+                queues.put(observer, new ObserverQueue(observer, queueCapacity));
+            }
             observers.add(observer);
         }
     }
 
     @Override
-    public void unregisterObserver(Observer observer) {
+    public synchronized void unregisterObserver(Observer observer) {
         observers.remove(observer);
+        ObserverQueue queue = queues.remove(observer);
+        if (queue != null) {
+            queue.stop(); // Delivers what is already queued, then ends the consumer
+        }
     }
 
     @Override
     public void notifyObservers(String eventType, Object data) {
-        // Iterate over a copy to avoid ConcurrentModificationException if observers unregister themselves
-        for (Observer observer : new ArrayList<>(observers)) {
-            observer.update(eventType, data);
+        if (dispatchMode == DispatchMode.SYNC) {
+            for (Observer observer : observers) { // Iterates a snapshot, so observers may unregister themselves
+                observer.update(eventType, data);
+            }
+            return;
+        }
+        Event event = new Event(eventType, data); // One event shared by all observer queues
+        for (Observer observer : observers) {
+            ObserverQueue queue = queues.get(observer);
+            if (queue != null) {
+                queue.enqueue(event);
+            }
         }
     }
 
     public void publishEvent(String eventType, Object data) {
-        System.out.println("EVENT_MANAGER: Publishing event - " + eventType + ": " + data.toString());
+        if (ActivityLogger.CONSOLE_ECHO) {
+            System.out.println("EVENT_MANAGER: Publishing event - " + eventType + ": " + data.toString());
+        }
         notifyObservers(eventType, data);
     }
-}
\ No newline at end of file
+
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    // Backpressure metrics per observer (empty in SYNC mode).
+    public List<ObserverQueueStats> getQueueStats() {
+        List<ObserverQueueStats> stats = new ArrayList<>();
+        for (ObserverQueue queue : queues.values()) {
+            stats.add(queue.stats());
+        }
+        return stats;
+    }
+
+    // Delivers all queued events and stops the consumers. Call before exiting in ASYNC mode.
+    public synchronized void shutdown() {
+        for (Observer observer : new ArrayList<>(observers)) {
+            unregisterObserver(observer);
+        }
+    }
+
+    private static final class Event {
+        private static final Event STOP = new Event(null, null);
+
+        private final String eventType;
+        private final Object data;
+
+        Event(String eventType, Object data) {
+            this.eventType = eventType;
+            this.data = data;
+        }
+    }
+
+    private static final class ObserverQueue {
+        private final Observer observer;
+        private final BlockingQueue<Event> queue;
+        private final Thread consumer;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong blockedPublishes = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile int maxDepth;
+        private final ReadWriteLock gate = new ReentrantReadWriteLock();
+        private boolean closed; // Guarded by gate
+
+        ObserverQueue(Observer observer, int capacity) {
+            this.observer = observer;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.consumer = Threads.start("event-observer-" + observer.getClass().getSimpleName(), this::consume);
+        }
+
+        // Publishers hold the read lock while queueing, stop() takes the write lock to close the queue: every event
+        // queued before the close is ahead of STOP, and every later one is delivered on the publishing thread.
+        void enqueue(Event event) {
+            gate.readLock().lock();
+            try {
+                if (closed) {
+                    deliver(event);
+                    return;
+                }
+                if (!queue.offer(event)) {
+                    long start = System.nanoTime();
+                    try {
+                        queue.put(event); // The consumer runs until STOP, which comes after us
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        System.err.println("Error: Interrupted while publishing " + event.eventType + "; event not delivered to " + observer.getClass().getSimpleName());
+                        return;
+                    } finally {
+                        blockedPublishes.incrementAndGet();
+                        blockedNanos.addAndGet(System.nanoTime() - start);
+                    }
+                }
+            } finally {
+                gate.readLock().unlock();
+            }
+            int depth = queue.size();
+            if (depth > maxDepth) {
+                maxDepth = depth; // Racy high-water mark, good enough for monitoring
+            }
+        }
+
+        private void consume() {
+            while (true) {
+                Event event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (event == Event.STOP) {
+                    return;
+                }
+                deliver(event);
+            }
+        }
+
+        private void deliver(Event event) {
+            try {
+                observer.update(event.eventType, event.data);
+                delivered.incrementAndGet();
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                System.err.println("Error in observer " + observer.getClass().getSimpleName() + " for event " + event.eventType + ": " + e.getMessage());
+            }
+        }
+
+        void stop() {
+            gate.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            } finally {
+                gate.writeLock().unlock();
+            }
+            try {
+                queue.put(Event.STOP);
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        ObserverQueueStats stats() {
+            return new ObserverQueueStats(observer.getClass().getSimpleName(), queue.size(), maxDepth,
+                    delivered.get(), failures.get(), blockedPublishes.get(), blockedNanos.get());
+        }
+    }
+}
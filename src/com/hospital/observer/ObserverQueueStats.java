@@ -0,0 +1,38 @@
+package com.hospital.observer;
+
+// Point-in-time backpressure metrics for one observer's dispatch queue.
+public class ObserverQueueStats {
+    private final String observerName;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final long deliveredEvents;
+    private final long failedEvents;
+    private final long blockedPublishes;
+    private final long blockedNanos;
+
+    public ObserverQueueStats(String observerName, int queueDepth, int maxQueueDepth, long deliveredEvents,
+                              long failedEvents, long blockedPublishes, long blockedNanos) {
+        this.observerName = observerName;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.deliveredEvents = deliveredEvents;
+        this.failedEvents = failedEvents;
+        this.blockedPublishes = blockedPublishes;
+        this.blockedNanos = blockedNanos;
+    }
+
+    public String getObserverName() { return observerName; }
+    public int getQueueDepth() { return queueDepth; }
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+    public long getDeliveredEvents() { return deliveredEvents; }
+    public long getFailedEvents() { return failedEvents; }
+    public long getBlockedPublishes() { return blockedPublishes; }
+    public long getBlockedNanos() { return blockedNanos; }
+
+    @Override
+    public String toString() {
+        return "Observer: " + observerName + ", Queue Depth: " + queueDepth + ", Max Depth: " + maxQueueDepth +
+               ", Delivered: " + deliveredEvents + ", Failed: " + failedEvents +
+               ", Blocked Publishes: " + blockedPublishes + " (" + String.format("%.1f", blockedNanos / 1_000_000.0) + " ms)";
+    }
+}
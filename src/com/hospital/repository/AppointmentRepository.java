@@ -0,0 +1,235 @@
+package com.hospital.repository;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+import com.hospital.model.AppointmentStatusListener;
+import com.hospital.util.StripedLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+// Appointment table with secondary indexes on top of the primary-key index.
+// The repository registers itself as status listener on every appointment it holds,
+// so state transitions (accept, reject, cancel) move the appointment between index buckets.
+// Each patient's appointments are also kept ordered by date/time for history and range queries,
+// and each doctor's bookings (PENDING_APPROVAL or ACCEPTED) by start time for double-booking checks.
+// Every appointment occupies one fixed-length slot (-Dhospital.schedule.slotMinutes, default 30).
+//
+// Concurrency: everything about one doctor's appointments (worklist buckets and state transitions)
+// is guarded by that doctor's stripe of doctorLocks(); callers changing an appointment hold it too.
+// A patient's timeline is shared by several doctors and is guarded by its own monitor.
+public class AppointmentRepository extends InMemoryRepository<Appointment> implements AppointmentStatusListener {
+    private static final int LOCK_STRIPES = 64;
+    private static final Duration SLOT = Duration.ofMinutes(Integer.getInteger("hospital.schedule.slotMinutes", 30));
+
+    private final StripedLock doctorLocks = new StripedLock(LOCK_STRIPES);
+    private final Map<String, DoctorWorklist> byDoctor = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<LocalDateTime, List<Appointment>>> byPatient = new ConcurrentHashMap<>();
+
+    public AppointmentRepository(Collection<Appointment> initialAppointments) {
+        super(Appointment::getAppointmentId);
+        addAll(initialAppointments);
+    }
+
+    public Lock doctorLock(String doctorId) {
+        return doctorLocks.forKey(doctorId);
+    }
+
+    public StripedLock doctorLocks() {
+        return doctorLocks;
+    }
+
+    @Override
+    protected void onAdded(Appointment appointment, Appointment replaced) {
+        if (replaced != null && replaced != appointment) {
+            replaced.setStatusListener(null);
+            Lock lock = doctorLock(replaced.getDoctorId());
+            lock.lock();
+            try {
+                worklist(replaced.getDoctorId()).remove(replaced, replaced.getStatus());
+            } finally {
+                lock.unlock();
+            }
+            removeFromPatientTimeline(replaced);
+        }
+        Lock lock = doctorLock(appointment.getDoctorId());
+        lock.lock();
+        try {
+            worklist(appointment.getDoctorId()).add(appointment, appointment.getStatus());
+            appointment.setStatusListener(this);
+        } finally {
+            lock.unlock();
+        }
+        NavigableMap<LocalDateTime, List<Appointment>> timeline = byPatient.computeIfAbsent(appointment.getPatientId(), id -> new TreeMap<>());
+        synchronized (timeline) {
+            timeline.computeIfAbsent(appointment.getDateTime(), dt -> new ArrayList<>(1)).add(appointment);
+        }
+    }
+
+    @Override
+    public void statusChanged(Appointment appointment, AppointmentStatus oldStatus, AppointmentStatus newStatus) {
+        Lock lock = doctorLock(appointment.getDoctorId()); // Normally already held by the caller; reentrant
+        lock.lock();
+        try {
+            DoctorWorklist worklist = worklist(appointment.getDoctorId());
+            worklist.bucket(oldStatus).remove(appointment);
+            worklist.bucket(newStatus).add(appointment);
+            if (isBooking(oldStatus) && !isBooking(newStatus)) {
+                worklist.unbook(appointment); // Rejected or cancelled: the slot is free again
+            } else if (!isBooking(oldStatus) && isBooking(newStatus)) {
+                worklist.book(appointment);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A null status returns all of the doctor's appointments in insertion order.
+    public List<Appointment> findByDoctor(String doctorId, AppointmentStatus statusFilter) {
+        DoctorWorklist worklist = byDoctor.get(doctorId);
+        if (worklist == null) {
+            return new ArrayList<>();
+        }
+        Lock lock = doctorLock(doctorId);
+        lock.lock();
+        try {
+            Set<Appointment> matches = statusFilter == null ? worklist.all : worklist.byStatus.get(statusFilter);
+            return matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static Duration getSlotDuration() {
+        return SLOT;
+    }
+
+    // A booking of the doctor whose slot overlaps a slot starting at dateTime, if any.
+    // Callers about to book should hold doctorLock(doctorId) from this check until the appointment is added.
+    public Optional<Appointment> findConflict(String doctorId, LocalDateTime dateTime) {
+        DoctorWorklist worklist = byDoctor.get(doctorId);
+        if (worklist == null) {
+            return Optional.empty();
+        }
+        Lock lock = doctorLock(doctorId);
+        lock.lock();
+        try {
+            // Two slots of equal length overlap exactly when their starts are less than one slot apart
+            NavigableMap<LocalDateTime, List<Appointment>> overlapping = worklist.schedule.subMap(dateTime.minus(SLOT), false, dateTime.plus(SLOT), false);
+            return overlapping.isEmpty() ? Optional.empty() : Optional.of(overlapping.firstEntry().getValue().get(0));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Whole history of a patient, oldest first.
+    public List<Appointment> findByPatient(String patientId) {
+        NavigableMap<LocalDateTime, List<Appointment>> timeline = byPatient.get(patientId);
+        if (timeline == null) {
+            return new ArrayList<>();
+        }
+        synchronized (timeline) {
+            return flatten(timeline);
+        }
+    }
+
+    // Appointments at or after the given time, oldest first.
+    public List<Appointment> findByPatientFrom(String patientId, LocalDateTime from) {
+        NavigableMap<LocalDateTime, List<Appointment>> timeline = byPatient.get(patientId);
+        if (timeline == null) {
+            return new ArrayList<>();
+        }
+        synchronized (timeline) {
+            return flatten(timeline.tailMap(from, true));
+        }
+    }
+
+    // Appointments in [from, to], oldest first.
+    public List<Appointment> findByPatientBetween(String patientId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, List<Appointment>> timeline = byPatient.get(patientId);
+        if (timeline == null || from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        synchronized (timeline) {
+            return flatten(timeline.subMap(from, true, to, true));
+        }
+    }
+
+    private static List<Appointment> flatten(Map<LocalDateTime, List<Appointment>> timeline) {
+        List<Appointment> result = new ArrayList<>();
+        for (List<Appointment> sameTime : timeline.values()) {
+            result.addAll(sameTime);
+        }
+        return result;
+    }
+
+    private void removeFromPatientTimeline(Appointment appointment) {
+        NavigableMap<LocalDateTime, List<Appointment>> timeline = byPatient.get(appointment.getPatientId());
+        if (timeline == null) return;
+        synchronized (timeline) {
+            List<Appointment> sameTime = timeline.get(appointment.getDateTime());
+            if (sameTime != null && sameTime.remove(appointment) && sameTime.isEmpty()) {
+                timeline.remove(appointment.getDateTime());
+            }
+        }
+    }
+
+    private static boolean isBooking(AppointmentStatus status) {
+        return status == AppointmentStatus.PENDING_APPROVAL || status == AppointmentStatus.ACCEPTED;
+    }
+
+    private DoctorWorklist worklist(String doctorId) {
+        return byDoctor.computeIfAbsent(doctorId, id -> new DoctorWorklist());
+    }
+
+    private static class DoctorWorklist {
+        private final Set<Appointment> all = new LinkedHashSet<>();
+        private final Map<AppointmentStatus, Set<Appointment>> byStatus = new EnumMap<>(AppointmentStatus.class);
+        // Bookings by start time; a list per key because older data files may already hold double bookings
+        private final NavigableMap<LocalDateTime, List<Appointment>> schedule = new TreeMap<>();
+
+        Set<Appointment> bucket(AppointmentStatus status) {
+            return status == null ? Collections.emptySet() : byStatus.computeIfAbsent(status, s -> new LinkedHashSet<>());
+        }
+
+        void add(Appointment appointment, AppointmentStatus status) {
+            all.add(appointment);
+            bucket(status).add(appointment);
+            if (isBooking(status)) {
+                book(appointment);
+            }
+        }
+
+        void remove(Appointment appointment, AppointmentStatus status) {
+            all.remove(appointment);
+            bucket(status).remove(appointment);
+            if (isBooking(status)) {
+                unbook(appointment);
+            }
+        }
+
+        void book(Appointment appointment) {
+            schedule.computeIfAbsent(appointment.getDateTime(), dt -> new ArrayList<>(1)).add(appointment);
+        }
+
+        void unbook(Appointment appointment) {
+            List<Appointment> sameTime = schedule.get(appointment.getDateTime());
+            if (sameTime != null && sameTime.remove(appointment) && sameTime.isEmpty()) {
+                schedule.remove(appointment.getDateTime());
+            }
+        }
+    }
+}
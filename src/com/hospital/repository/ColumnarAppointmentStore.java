@@ -0,0 +1,326 @@
+package com.hospital.repository;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Column-oriented appointment table for large, mostly read histories (reports, archives, analytics).
+// Each column is a primitive array indexed by row:
+//   appointment ID  - int, the 8 hex digits of the standard "APP-XXXXXXXX" form (other IDs kept aside in a map)
+//   patient/doctor  - int codes into per-column string dictionaries, so each distinct ID is stored once
+//   date/time       - epoch minutes (UTC) as long; the rare sub-minute time is kept aside in a map
+//   description     - int code into a dictionary (descriptions repeat a lot)
+//   status          - one ordinal byte
+// That is about 25 bytes per row instead of several hundred for an Appointment object graph, and scans walk
+// contiguous arrays. Appointment objects are only materialized for the rows a query returns; they are detached
+// copies, so changes go through setStatus().
+//
+// Unlike AppointmentRepository this store has no live state objects, listeners or per-doctor locks; one
+// read/write lock guards the whole table.
+//
+// Standalone library class: the application (facade, console, HTTP API) always uses AppointmentRepository, and
+// there is no setting to swap this store in, since live appointments need their state objects and doctor locks.
+// Build one from loaded or streamed appointments (e.g. FileManager.streamAppointments) for reports and archives.
+public class ColumnarAppointmentStore {
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary patientIds = new Dictionary();
+    private final Dictionary doctorIds = new Dictionary();
+    private final Dictionary descriptions = new Dictionary();
+
+    private int[] appointmentIdColumn = new int[INITIAL_CAPACITY];
+    private int[] patientColumn = new int[INITIAL_CAPACITY];
+    private int[] doctorColumn = new int[INITIAL_CAPACITY];
+    private long[] epochMinuteColumn = new long[INITIAL_CAPACITY];
+    private int[] descriptionColumn = new int[INITIAL_CAPACITY];
+    private byte[] statusColumn = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    // Primary-key index over the packed IDs: open addressing, slot holds row + 1 (0 = empty)
+    private int[] idSlots = new int[INITIAL_CAPACITY * 2];
+    // Rows whose ID or time does not fit the packed form
+    private final Map<String, Integer> irregularIdRows = new HashMap<>();
+    private final Map<Integer, String> irregularIds = new HashMap<>();
+    private final Map<Integer, LocalDateTime> preciseTimes = new HashMap<>();
+
+    public ColumnarAppointmentStore() {
+    }
+
+    public ColumnarAppointmentStore(Iterable<Appointment> appointments) {
+        addAll(appointments);
+    }
+
+    public void addAll(Iterable<Appointment> appointments) {
+        for (Appointment appointment : appointments) {
+            add(appointment);
+        }
+    }
+
+    // Adding an appointment with an existing ID overwrites its row, as in InMemoryRepository.
+    public void add(Appointment appointment) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(appointment.getAppointmentId());
+            if (row < 0) {
+                row = appendRow(appointment.getAppointmentId());
+            }
+            patientColumn[row] = patientIds.encode(appointment.getPatientId());
+            doctorColumn[row] = doctorIds.encode(appointment.getDoctorId());
+            descriptionColumn[row] = descriptions.encode(appointment.getDescription());
+            statusColumn[row] = (byte) appointment.getStatus().ordinal();
+            LocalDateTime dateTime = appointment.getDateTime();
+            long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+            epochMinuteColumn[row] = Math.floorDiv(epochSecond, 60L);
+            if (Math.floorMod(epochSecond, 60L) != 0 || dateTime.getNano() != 0) {
+                preciseTimes.put(row, dateTime);
+            } else {
+                preciseTimes.remove(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean setStatus(String appointmentId, AppointmentStatus status) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(appointmentId);
+            if (row < 0) {
+                return false;
+            }
+            statusColumn[row] = (byte) status.ordinal();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Appointment> findById(String appointmentId) {
+        lock.readLock().lock();
+        try {
+            int row = rowOf(appointmentId);
+            return row < 0 ? Optional.empty() : Optional.of(materialize(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A null status returns all of the doctor's appointments, in insertion order.
+    public List<Appointment> findByDoctor(String doctorId, AppointmentStatus statusFilter) {
+        List<Appointment> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int doctor = doctorIds.codeOf(doctorId);
+            if (doctor < 0) {
+                return result;
+            }
+            int status = statusFilter == null ? -1 : statusFilter.ordinal();
+            for (int row = 0; row < size; row++) {
+                if (doctorColumn[row] == doctor && (status < 0 || statusColumn[row] == status)) {
+                    result.add(materialize(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whole history of a patient, oldest first.
+    public List<Appointment> findByPatient(String patientId) {
+        lock.readLock().lock();
+        try {
+            int patient = patientIds.codeOf(patientId);
+            if (patient < 0) {
+                return new ArrayList<>();
+            }
+            int matches = 0;
+            int[] rows = new int[16];
+            for (int row = 0; row < size; row++) {
+                if (patientColumn[row] == patient) {
+                    if (matches == rows.length) rows = Arrays.copyOf(rows, matches * 2);
+                    rows[matches++] = row;
+                }
+            }
+            List<Appointment> result = new ArrayList<>(matches);
+            for (int i = 0; i < matches; i++) {
+                result.add(materialize(rows[i]));
+            }
+            result.sort((a, b) -> a.getDateTime().compareTo(b.getDateTime())); // Stable: same-time rows keep insertion order
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Aggregates straight over the status column without materializing anything.
+    public Map<AppointmentStatus, Integer> countByStatus() {
+        int[] counts = new int[STATUSES.length];
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                counts[statusColumn[row]]++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<AppointmentStatus, Integer> result = new EnumMap<>(AppointmentStatus.class);
+        for (AppointmentStatus status : STATUSES) {
+            result.put(status, counts[status.ordinal()]);
+        }
+        return result;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Appointment materialize(int row) {
+        String id = irregularIds.get(row);
+        if (id == null) {
+            id = unpackId(appointmentIdColumn[row]);
+        }
+        LocalDateTime dateTime = preciseTimes.get(row);
+        if (dateTime == null) {
+            dateTime = LocalDateTime.ofEpochSecond(epochMinuteColumn[row] * 60, 0, ZoneOffset.UTC);
+        }
+        return new Appointment(id, patientIds.decode(patientColumn[row]), doctorIds.decode(doctorColumn[row]),
+                dateTime, descriptions.decode(descriptionColumn[row]), STATUSES[statusColumn[row]]);
+    }
+
+    private int appendRow(String appointmentId) {
+        if (size == statusColumn.length) {
+            int capacity = size + (size >> 1);
+            appointmentIdColumn = Arrays.copyOf(appointmentIdColumn, capacity);
+            patientColumn = Arrays.copyOf(patientColumn, capacity);
+            doctorColumn = Arrays.copyOf(doctorColumn, capacity);
+            epochMinuteColumn = Arrays.copyOf(epochMinuteColumn, capacity);
+            descriptionColumn = Arrays.copyOf(descriptionColumn, capacity);
+            statusColumn = Arrays.copyOf(statusColumn, capacity);
+        }
+        int row = size++;
+        long packed = packId(appointmentId);
+        if (packed < 0) {
+            irregularIdRows.put(appointmentId, row);
+            irregularIds.put(row, appointmentId);
+        } else {
+            appointmentIdColumn[row] = (int) packed;
+            if (size * 2 > idSlots.length) {
+                rebuildIdIndex(idSlots.length * 2);
+            } else {
+                insertIdSlot(row);
+            }
+        }
+        return row;
+    }
+
+    private int rowOf(String appointmentId) {
+        long packed = packId(appointmentId);
+        if (packed < 0) {
+            Integer row = irregularIdRows.get(appointmentId);
+            return row == null ? -1 : row;
+        }
+        int code = (int) packed;
+        int mask = idSlots.length - 1;
+        for (int slot = mix(code) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = idSlots[slot] - 1;
+            if (appointmentIdColumn[row] == code) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private void insertIdSlot(int row) {
+        int mask = idSlots.length - 1;
+        int slot = mix(appointmentIdColumn[row]) & mask;
+        while (idSlots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        idSlots[slot] = row + 1;
+    }
+
+    private void rebuildIdIndex(int slots) {
+        idSlots = new int[slots];
+        for (int row = 0; row < size; row++) {
+            if (!irregularIds.containsKey(row)) {
+                insertIdSlot(row);
+            }
+        }
+    }
+
+    private static int mix(int code) {
+        int h = code * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs
+        return h ^ (h >>> 16);
+    }
+
+    // "APP-" followed by exactly 8 upper-case hex digits -> those 32 bits; -1 for any other form.
+    private static long packId(String appointmentId) {
+        if (appointmentId == null || appointmentId.length() != 12 || !appointmentId.startsWith("APP-")) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 4; i < 12; i++) {
+            char c = appointmentId.charAt(i);
+            int digit = Character.digit(c, 16);
+            if (digit < 0 || Character.isLowerCase(c)) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static String unpackId(int code) {
+        char[] chars = {'A', 'P', 'P', '-', 0, 0, 0, 0, 0, 0, 0, 0};
+        for (int i = 11; i >= 4; i--) {
+            chars[i] = HEX[code & 0xF];
+            code >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    // Assigns each distinct string a dense int code.
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int codeOf(String value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hospital.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// Thread-safe in-memory table with a primary-key hash index.
+// Lookups by ID go straight to a ConcurrentHashMap (O(1), lock-free); a separate list keeps the
+// insertion (file) order for listing and saving and is guarded by a read/write lock.
+public class InMemoryRepository<T> {
+    private final Function<T, String> idExtractor;
+    private final Map<String, T> byId = new ConcurrentHashMap<>();
+    private final List<T> inInsertionOrder = new ArrayList<>();
+    private final ReadWriteLock orderLock = new ReentrantReadWriteLock();
+
+    public InMemoryRepository(Function<T, String> idExtractor, Collection<T> initialEntities) {
+        this(idExtractor);
+        addAll(initialEntities);
+    }
+
+    // Subclasses with their own index fields call addAll() once those are initialised.
+    protected InMemoryRepository(Function<T, String> idExtractor) {
+        this.idExtractor = idExtractor;
+    }
+
+    public void addAll(Collection<T> entities) {
+        for (T entity : entities) {
+            add(entity);
+        }
+    }
+
+    // Adding an entity with an existing ID replaces it in place.
+    public void add(T entity) {
+        T previous;
+        orderLock.writeLock().lock();
+        try {
+            previous = byId.put(idExtractor.apply(entity), entity);
+            if (previous == null) {
+                inInsertionOrder.add(entity);
+            } else {
+                inInsertionOrder.set(inInsertionOrder.indexOf(previous), entity); // Rare: duplicate IDs in a data file
+            }
+        } finally {
+            orderLock.writeLock().unlock();
+        }
+        onAdded(entity, previous);
+    }
+
+    // Atomically adds the entity unless its ID is already taken.
+    public boolean addIfAbsent(T entity) {
+        orderLock.writeLock().lock();
+        try {
+            if (byId.putIfAbsent(idExtractor.apply(entity), entity) != null) {
+                return false;
+            }
+            inInsertionOrder.add(entity);
+        } finally {
+            orderLock.writeLock().unlock();
+        }
+        onAdded(entity, null);
+        return true;
+    }
+
+    // Hook for subclasses maintaining secondary indexes. Runs outside the repository lock.
+    protected void onAdded(T entity, T replaced) {
+    }
+
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    public boolean containsId(String id) {
+        return byId.containsKey(id);
+    }
+
+    // Consistent copy in insertion order, e.g. for listing or persisting.
+    public List<T> findAll() {
+        orderLock.readLock().lock();
+        try {
+            return new ArrayList<>(inInsertionOrder);
+        } finally {
+            orderLock.readLock().unlock();
+        }
+    }
+
+    // Up to pageSize entities in insertion order, starting at the cursor (null for the first page).
+    // Only the page itself is copied, whatever the size of the table.
+    public Page<T> findPage(String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        int from = Page.decodeCursor(cursor);
+        orderLock.readLock().lock();
+        try {
+            int to = (int) Math.min(inInsertionOrder.size(), (long) from + pageSize);
+            List<T> items = from >= to ? new ArrayList<>() : new ArrayList<>(inInsertionOrder.subList(from, to));
+            return new Page<>(items, to < inInsertionOrder.size() ? Page.encodeCursor(to) : null);
+        } finally {
+            orderLock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.hospital.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+// One page of a listing plus the continuation token for the next one (null on the last page).
+// Cursors are positions in a repository's insertion order. Entities are only ever appended or replaced in place,
+// so a cursor stays valid while the table grows: new entities simply show up on later pages.
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), null);
+    }
+
+    // For listings kept outside this package that page by their own positions; a negative nextPosition marks
+    // the last page.
+    public static <T> Page<T> of(List<T> items, int nextPosition) {
+        return new Page<>(items, nextPosition < 0 ? null : encodeCursor(nextPosition));
+    }
+
+    // The position a cursor from of() stands for (0 for a null cursor).
+    public static int positionOf(String cursor) {
+        return decodeCursor(cursor);
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+
+    static String encodeCursor(int position) {
+        return Integer.toString(position, 36);
+    }
+
+    // A null cursor starts at the beginning; anything else must come from getNextCursor().
+    static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            int position = Integer.parseInt(cursor, 36);
+            if (position < 0) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+    }
+}
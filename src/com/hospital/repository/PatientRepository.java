@@ -0,0 +1,27 @@
+package com.hospital.repository;
+
+import com.hospital.model.Patient;
+
+import java.util.Collection;
+import java.util.List;
+
+// Patient table that also keeps a name/contact-number search index, updated as patients are added
+// (loaded, registered or imported).
+public class PatientRepository extends InMemoryRepository<Patient> {
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex();
+
+    public PatientRepository(Collection<Patient> initialPatients) {
+        super(Patient::getId);
+        addAll(initialPatients);
+    }
+
+    @Override
+    protected void onAdded(Patient patient, Patient replaced) {
+        searchIndex.add(patient);
+    }
+
+    // Best matches first; see PatientSearchIndex for how a query matches.
+    public List<Patient> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+}
@@ -0,0 +1,487 @@
+package com.hospital.repository;
+
+import com.hospital.model.Patient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted index for finding patients by name and contact number as the front desk types.
+// Names are split into lower-case words; a contact number is indexed as its digits (and, when longer, its last ten
+// digits, so numbers can be found without the country code). Every query word must match a word of the patient:
+//   exact word               "chen"     -> Chen                  (4 points)
+//   prefix                   "che"      -> Chen, Cheng           (3)
+//   typo, whole word         "chne"     -> Chen                  (2)  (query words of 4+ letters; 2 typos from 8 letters)
+//   typo within a prefix     "jhonso"   -> Johnson               (1)  (query words of 6+ letters)
+// Results are ranked by total points, then by name and ID.
+// Each word maps to a posting list of patient numbers in registration order. Prefixes are a range scan of the sorted
+// word dictionary, and typo candidates come from a trigram index over the dictionary's letter-only words, checked
+// with a bounded edit distance (adjacent swaps count as one edit). Matching lists are intersected word by word.
+// Patients are only ever added; replacing one (same ID) retires its old entry. Safe for concurrent use.
+public class PatientSearchIndex {
+    private static final int EXACT = 4;
+    private static final int PREFIX = 3;
+    private static final int FUZZY = 2;
+    private static final int FUZZY_PREFIX = 1;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_FUZZY_PREFIX_LENGTH = 6; // Shorter prefixes with a typo match too much to be useful
+    private static final int TWO_TYPO_LENGTH = 8;
+    // A one- or two-character prefix can match much of the dictionary; only its first completions are used
+    private static final int MAX_PREFIX_TERMS = 10_000;
+    private static final int MAX_QUERY_WORDS = 8; // Keeps summed points within a byte
+    private static final int MAX_SCORE = EXACT * MAX_QUERY_WORDS;
+    private static final Comparator<Patient> BY_NAME = Comparator.comparing(Patient::getName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Patient::getId);
+
+    private final NavigableMap<String, Term> terms = new TreeMap<>();
+    private final Map<String, IntList> termsByTrigram = new HashMap<>(); // Letter-only terms, by Term.id
+    private final List<Term> fuzzyTerms = new ArrayList<>(); // Term.id -> term, letter-only terms only
+    private final Map<String, Integer> docsById = new HashMap<>();
+    private Patient[] docs = new Patient[16];
+    private int docCount;
+    private final BitSet retired = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(Patient patient) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docsById.get(patient.getId());
+            if (previous != null) {
+                retired.set(previous);
+            }
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+            }
+            int doc = docCount++;
+            docs[doc] = patient;
+            docsById.put(patient.getId(), doc);
+            for (String word : words(patient.getName())) {
+                term(word).add(doc);
+            }
+            String digits = digits(patient.getContactNumber());
+            if (!digits.isEmpty()) {
+                term(digits).add(doc);
+                if (digits.length() > 10) {
+                    term(digits.substring(digits.length() - 10)).add(doc);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit patients matching every word of the query, best first; empty for a blank query.
+    // Typo matching only runs when exact and prefix matches do not fill the limit: it is the slow part, and when
+    // what was typed already matches enough patients, those are the ones wanted.
+    public List<Patient> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+        lock.readLock().lock();
+        try {
+            List<Patient> found = find(words, limit, false);
+            if (found.size() < limit && allowsTypos(words)) {
+                found = find(words, limit, true);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - retired.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The most selective word's patients are listed first; every further word then either probes its own
+    // posting lists for just those patients, or, when that would cost more, is listed and intersected.
+    private List<Patient> find(List<String> words, int limit, boolean typos) {
+        List<WordMatch> perWord = new ArrayList<>(words.size());
+        for (String word : words) {
+            WordMatch match = match(word, typos);
+            if (match.terms.isEmpty()) {
+                return Collections.emptyList();
+            }
+            perWord.add(match);
+        }
+        perWord.sort(Comparator.comparingLong(m -> m.postings));
+        Matches result = perWord.get(0).list();
+        for (int i = 1; i < perWord.size() && result.size > 0; i++) {
+            WordMatch next = perWord.get(i);
+            boolean probe = (long) result.size * next.terms.size() * 16 < next.postings; // ~16 steps per binary search
+            result = probe ? result.probe(next) : result.intersect(next.list());
+        }
+        return top(result, limit);
+    }
+
+    // The dictionary words this query word matches, with their points.
+    private WordMatch match(String word, boolean typos) {
+        WordMatch match = new WordMatch();
+        int expanded = 0;
+        for (Term term : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            if (expanded++ == MAX_PREFIX_TERMS) break;
+            match.add(term, term.text.length() == word.length() ? EXACT : PREFIX);
+        }
+        if (typos && allowsTypos(word)) {
+            int maxTypos = word.length() >= TWO_TYPO_LENGTH ? 2 : 1;
+            boolean inPrefix = word.length() >= MIN_FUZZY_PREFIX_LENGTH;
+            int[][] rows = new int[3][];
+            int[] distances = new int[2];
+            for (Term term : fuzzyCandidates(word, maxTypos, inPrefix)) {
+                if (term.text.startsWith(word)) continue; // Already matched as exact or prefix
+                editDistances(word, term.text, maxTypos, rows, distances);
+                if (distances[0] <= maxTypos) {
+                    match.add(term, FUZZY);
+                } else if (inPrefix && distances[1] <= maxTypos) {
+                    match.add(term, FUZZY_PREFIX);
+                }
+            }
+        }
+        return match;
+    }
+
+    // Letter-only dictionary words of a suitable length, starting with the same letter (or the first two swapped),
+    // that share enough leading-padded trigrams with the query word to be within maxTypos edits of it or of one of
+    // their prefixes (one edit, even swapping two letters, breaks at most four trigrams).
+    private List<Term> fuzzyCandidates(String word, int maxTypos, boolean inPrefix) {
+        List<String> queryTrigrams = trigrams(word);
+        int needed = Math.max(1, queryTrigrams.size() - 4 * maxTypos);
+        int minLength = word.length() - maxTypos;
+        int maxLength = inPrefix ? Integer.MAX_VALUE : word.length() + maxTypos;
+        int[] shared = new int[fuzzyTerms.size()];
+        List<Term> candidates = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            IntList ids = termsByTrigram.get(trigram);
+            if (ids == null) continue;
+            for (int i = 0; i < ids.size; i++) {
+                int id = ids.values[i];
+                if (++shared[id] == needed) {
+                    Term term = fuzzyTerms.get(id);
+                    if (term.text.length() >= minLength && term.text.length() <= maxLength && sameStart(word, term.text)) {
+                        candidates.add(term);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Almost every typo leaves the first letter alone, and requiring it cuts the candidates to check by an order of magnitude.
+    private static boolean sameStart(String word, String term) {
+        return term.charAt(0) == word.charAt(0) || term.length() > 1 && term.charAt(0) == word.charAt(1) && term.charAt(1) == word.charAt(0);
+    }
+
+    // Sets distances to {distance to the whole word, smallest distance to any prefix of it}, each capped at
+    // maxTypos + 1. Optimal string alignment: insertions, deletions, substitutions and adjacent swaps each cost one.
+    // Only three rows are kept (reused across calls through rows), and the table stops early once two rows in a
+    // row are entirely over the cap, as no later row can then come back under it.
+    private static void editDistances(String query, String word, int maxTypos, int[][] rows, int[] distances) {
+        int cap = maxTypos + 1;
+        int m = query.length();
+        int n = word.length();
+        if (rows[0] == null || rows[0].length <= n) {
+            for (int r = 0; r < 3; r++) rows[r] = new int[n + 8];
+        }
+        int[] twoBack = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+        for (int j = 0; j <= n; j++) previous[j] = j;
+        boolean previousOverCap = false;
+        for (int i = 1; i <= m; i++) {
+            current[0] = i;
+            int rowMin = i;
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                char w = word.charAt(j - 1);
+                int best = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (q == w ? 0 : 1));
+                if (i > 1 && j > 1 && q == word.charAt(j - 2) && query.charAt(i - 2) == w) {
+                    best = Math.min(best, twoBack[j - 2] + 1);
+                }
+                current[j] = best;
+                rowMin = Math.min(rowMin, best);
+            }
+            if (rowMin > maxTypos && previousOverCap) {
+                distances[0] = cap;
+                distances[1] = cap;
+                return;
+            }
+            previousOverCap = rowMin > maxTypos;
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+        int prefix = cap;
+        for (int j = 0; j <= n; j++) prefix = Math.min(prefix, previous[j]);
+        distances[0] = Math.min(previous[n], cap);
+        distances[1] = prefix;
+    }
+
+    // Counting patients per score first finds the lowest score that still makes the cut; names are only compared
+    // among the patients tied at that score.
+    private List<Patient> top(Matches matches, int limit) {
+        int[] perScore = new int[MAX_SCORE + 1];
+        for (int i = 0; i < matches.size; i++) {
+            if (!retired.get(matches.docs[i])) perScore[matches.scores[i]]++;
+        }
+        int cutoff = 0;
+        int above = 0; // Patients scoring more than the cutoff
+        for (int score = MAX_SCORE; score > 0; score--) {
+            if (above + perScore[score] >= limit) {
+                cutoff = score;
+                break;
+            }
+            above += perScore[score];
+        }
+        int slots = limit - above;
+        List<Hit> hits = new ArrayList<>(limit);
+        PriorityQueue<Patient> tied = new PriorityQueue<>(slots + 1, BY_NAME.reversed()); // Last in name order on top
+        for (int i = 0; i < matches.size; i++) {
+            int doc = matches.docs[i];
+            int score = matches.scores[i];
+            if (score < cutoff || retired.get(doc)) continue;
+            if (score > cutoff) {
+                hits.add(new Hit(docs[doc], score));
+            } else if (tied.size() < slots) {
+                tied.add(docs[doc]);
+            } else if (BY_NAME.compare(docs[doc], tied.peek()) < 0) {
+                tied.poll();
+                tied.add(docs[doc]);
+            }
+        }
+        for (Patient patient : tied) hits.add(new Hit(patient, cutoff));
+        hits.sort(Comparator.<Hit>comparingInt(h -> -h.score).thenComparing(h -> h.patient, BY_NAME));
+        List<Patient> patients = new ArrayList<>(hits.size());
+        for (Hit hit : hits) patients.add(hit.patient);
+        return patients;
+    }
+
+    private Term term(String word) {
+        Term term = terms.get(word);
+        if (term == null) {
+            boolean fuzzy = isLetters(word);
+            term = new Term(word, fuzzy ? fuzzyTerms.size() : -1);
+            terms.put(word, term);
+            if (fuzzy) {
+                fuzzyTerms.add(term);
+                for (String trigram : trigrams(word)) {
+                    termsByTrigram.computeIfAbsent(trigram, t -> new IntList()).add(term.id);
+                }
+            }
+        }
+        return term;
+    }
+
+    // Lower-case words of letters and digits; everything else separates words.
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>(4);
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static String digits(String contactNumber) {
+        if (contactNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(contactNumber.length());
+        for (int i = 0; i < contactNumber.length(); i++) {
+            char c = contactNumber.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.length() == contactNumber.length() ? contactNumber : digits.toString();
+    }
+
+    private static boolean allowsTypos(String word) {
+        return word.length() >= MIN_FUZZY_LENGTH && isLetters(word);
+    }
+
+    private static boolean allowsTypos(List<String> words) {
+        for (String word : words) {
+            if (allowsTypos(word)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // "john" -> "  j", " jo", "joh", "ohn": padded at the front only, so a word shares all of them with its completions.
+    private static List<String> trigrams(String word) {
+        String padded = "  " + word;
+        List<String> trigrams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static class Term {
+        final String text;
+        final int id; // Index in fuzzyTerms, -1 for words with digits
+        final IntList docs = new IntList();
+
+        Term(String text, int id) {
+            this.text = text;
+            this.id = id;
+        }
+
+        void add(int doc) {
+            if (docs.size == 0 || docs.values[docs.size - 1] != doc) { // A name repeating a word lists the patient once
+                docs.add(doc);
+            }
+        }
+    }
+
+    // Growable int array; values are appended in increasing order, so posting lists stay sorted.
+    private static class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    // Dictionary words matched by one query word, with the points each is worth.
+    private static class WordMatch {
+        final List<Term> terms = new ArrayList<>();
+        final IntList points = new IntList();
+        long postings; // Patients listed under all of the words together
+
+        void add(Term term, int termPoints) {
+            terms.add(term);
+            points.add(termPoints);
+            postings += term.docs.size;
+        }
+
+        // Every patient under any of the words, sorted; a patient under several keeps its best points.
+        Matches list() {
+            if (terms.size() == 1) {
+                Term term = terms.get(0);
+                byte[] scores = new byte[term.docs.size];
+                Arrays.fill(scores, (byte) points.values[0]);
+                return new Matches(term.docs.values, scores, term.docs.size);
+            }
+            long[] entries = new long[(int) postings];
+            int n = 0;
+            for (int t = 0; t < terms.size(); t++) {
+                long inverted = EXACT - points.values[t]; // Sorts the best points first within a patient
+                IntList docsOfTerm = terms.get(t).docs;
+                for (int i = 0; i < docsOfTerm.size; i++) {
+                    entries[n++] = ((long) docsOfTerm.values[i] << 3) | inverted;
+                }
+            }
+            Arrays.sort(entries);
+            int[] docs = new int[n];
+            byte[] scores = new byte[n];
+            int size = 0;
+            for (int i = 0; i < n; i++) {
+                int doc = (int) (entries[i] >>> 3);
+                if (size > 0 && docs[size - 1] == doc) continue;
+                docs[size] = doc;
+                scores[size++] = (byte) (EXACT - (entries[i] & 7));
+            }
+            return new Matches(docs, scores, size);
+        }
+    }
+
+    // Patients (sorted patient numbers) matched so far, with their points.
+    private static class Matches {
+        final int[] docs;
+        final byte[] scores;
+        final int size;
+
+        Matches(int[] docs, byte[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        Matches intersect(Matches other) {
+            int[] both = new int[Math.min(size, other.size)];
+            byte[] scores = new byte[both.length];
+            int n = 0;
+            for (int i = 0, j = 0; i < size && j < other.size; ) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    both[n] = docs[i];
+                    scores[n++] = (byte) (this.scores[i++] + other.scores[j++]);
+                }
+            }
+            return new Matches(both, scores, n);
+        }
+
+        // Keeps the patients listed under any of the word's dictionary words, adding the best points found.
+        Matches probe(WordMatch word) {
+            int[] kept = new int[size];
+            byte[] scores = new byte[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int best = 0;
+                for (int t = 0; t < word.terms.size(); t++) {
+                    IntList docsOfTerm = word.terms.get(t).docs;
+                    if (word.points.values[t] > best && Arrays.binarySearch(docsOfTerm.values, 0, docsOfTerm.size, docs[i]) >= 0) {
+                        best = word.points.values[t];
+                    }
+                }
+                if (best > 0) {
+                    kept[n] = docs[i];
+                    scores[n++] = (byte) (this.scores[i] + best);
+                }
+            }
+            return new Matches(kept, scores, n);
+        }
+    }
+
+    private static class Hit {
+        final Patient patient;
+        final int score;
+
+        Hit(Patient patient, int score) {
+            this.patient = patient;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hospital.security;
+
+import com.hospital.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU cache of recently verified credentials, so repeated logins skip the PBKDF2 cost.
+// Entries hold a keyed SHA-256 digest (never the password) bound to the stored hash they were verified
+// against; a changed stored hash simply misses. The key is random per process, so nothing survives a restart.
+public class CredentialCache {
+    private final int maxEntries;
+    private final byte[] processKey = new byte[32];
+    private final Map<String, CachedCredential> entries;
+
+    public CredentialCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        new SecureRandom().nextBytes(processKey);
+        this.entries = new LinkedHashMap<String, CachedCredential>(16, 0.75f, true) { // access order = LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCredential> eldest) {
+                return size() > CredentialCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean verify(User user, String password) {
+        if (password == null) {
+            return false;
+        }
+        String storedHash = user.getPasswordHash();
+        byte[] digest = digest(storedHash, password);
+        CachedCredential cached;
+        synchronized (entries) {
+            cached = entries.get(user.getUsername());
+        }
+        if (cached != null && cached.storedHash.equals(storedHash)) {
+            return MessageDigest.isEqual(cached.digest, digest);
+        }
+        if (!PasswordHasher.verify(password, storedHash)) {
+            return false;
+        }
+        synchronized (entries) {
+            entries.put(user.getUsername(), new CachedCredential(storedHash, digest));
+        }
+        return true;
+    }
+
+    private byte[] digest(String storedHash, String password) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(processKey);
+            sha256.update(storedHash.getBytes(StandardCharsets.UTF_8));
+            return sha256.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Part of every Java SE runtime
+        }
+    }
+
+    private static class CachedCredential {
+        private final String storedHash;
+        private final byte[] digest;
+
+        CachedCredential(String storedHash, byte[] digest) {
+            this.storedHash = storedHash;
+            this.digest = digest;
+        }
+    }
+}
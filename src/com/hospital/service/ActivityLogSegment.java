@@ -0,0 +1,349 @@
+package com.hospital.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import com.hospital.util.Timestamps;
+
+// One closed segment of the activity log: activity_log-NNNNNN.txt.gz, or .txt while it waits to be compressed.
+// A compressed segment carries its summary (time range, record count, records per event type) in the gzip
+// comment field, which sits uncompressed in the first bytes of the file, so a tool can decide whether a segment
+// is relevant without inflating it. Plain gzip tools ignore the comment (zcat/zgrep work as usual).
+// Header text: "activity-log-segment/1 from=<first timestamp> to=<last timestamp> records=N types=TYPE:N,TYPE:N"
+public class ActivityLogSegment {
+    static final String FILE_PREFIX = "activity_log-";
+    static final String PLAIN_SUFFIX = ".txt";
+    static final String COMPRESSED_SUFFIX = ".txt.gz";
+    static final String OTHER_TYPE = "OTHER"; // Lines not written by ActivityLogger ("Event: TYPE | Data: ...")
+
+    private static final String HEADER_MAGIC = "activity-log-segment/1";
+    private static final Pattern FILE_NAME = Pattern.compile(Pattern.quote(FILE_PREFIX) + "(\\d+)\\.txt(\\.gz)?");
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final Path path;
+    private final long sequence;
+    private final boolean compressed;
+    private final LocalDateTime from; // null for a segment without records
+    private final LocalDateTime to;
+    private final long records;
+    private final Map<String, Long> typeCounts;
+
+    ActivityLogSegment(Path path, long sequence, boolean compressed, LocalDateTime from, LocalDateTime to,
+                       long records, Map<String, Long> typeCounts) {
+        this.path = path;
+        this.sequence = sequence;
+        this.compressed = compressed;
+        this.from = from;
+        this.to = to;
+        this.records = records;
+        this.typeCounts = Collections.unmodifiableMap(new TreeMap<>(typeCounts));
+    }
+
+    public Path getPath() { return path; }
+    public long getSequence() { return sequence; }
+    public boolean isCompressed() { return compressed; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public long getRecords() { return records; }
+    public Map<String, Long> getTypeCounts() { return typeCounts; }
+
+    public long getCount(String eventType) {
+        return typeCounts.getOrDefault(eventType, 0L);
+    }
+
+    // True if the segment may hold records of eventType (null = any) between from and to (either may be null).
+    public boolean mayContain(String eventType, LocalDateTime rangeFrom, LocalDateTime rangeTo) {
+        if (records == 0 || (eventType != null && getCount(eventType) == 0)) {
+            return false;
+        }
+        if (from == null) {
+            return true; // No timestamped lines, so the range cannot rule it out
+        }
+        return (rangeFrom == null || !to.isBefore(rangeFrom)) && (rangeTo == null || !from.isAfter(rangeTo));
+    }
+
+    // Reads the segment's lines in order, inflating compressed segments on the fly.
+    public BufferedReader openReader() throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (compressed) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    // The file records are currently appended to, after every segment in list(dir).
+    public static Path activeFile(Path dir) {
+        return dir.resolve(ActivityLogSegments.ACTIVE_FILE);
+    }
+
+    // Closed segments in dir, oldest first. A compressed segment's summary comes from its header; a plain one
+    // (not compressed yet) is scanned. Unreadable segments are reported and left out.
+    public static List<ActivityLogSegment> list(Path dir) {
+        TreeMap<Long, Path> plain = new TreeMap<>();
+        TreeMap<Long, Path> compressed = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    (name.group(2) != null ? compressed : plain).put(Long.parseLong(name.group(1)), file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing activity log segments in " + dir + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+        List<ActivityLogSegment> segments = new ArrayList<>();
+        TreeMap<Long, Path> all = new TreeMap<>(compressed);
+        all.putAll(plain); // A plain file is still authoritative if its compression was interrupted
+        for (Map.Entry<Long, Path> entry : all.entrySet()) {
+            boolean isCompressed = !plain.containsKey(entry.getKey());
+            try {
+                segments.add(isCompressed ? readHeader(entry.getValue(), entry.getKey()) : scan(entry.getValue(), entry.getKey()));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reading activity log segment " + entry.getValue() + ": " + e.getMessage());
+            }
+        }
+        return segments;
+    }
+
+    static String fileName(long sequence, boolean compressed) {
+        return String.format("%s%06d%s", FILE_PREFIX, sequence, compressed ? COMPRESSED_SUFFIX : PLAIN_SUFFIX);
+    }
+
+    // Sequence number of a segment file name, or -1 for any other file.
+    static long sequenceOf(String fileName) {
+        Matcher name = FILE_NAME.matcher(fileName);
+        return name.matches() ? Long.parseLong(name.group(1)) : -1;
+    }
+
+    // Summary of a plain segment, built by reading every line.
+    static ActivityLogSegment scan(Path file, long sequence) throws IOException {
+        Summary summary = new Summary();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                summary.add(line);
+            }
+        }
+        return summary.toSegment(file, sequence, false);
+    }
+
+    // Reads only the gzip header of a compressed segment.
+    static ActivityLogSegment readHeader(Path file, long sequence) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 512))) {
+            int magic = Short.reverseBytes(in.readShort()) & 0xffff;
+            int method = in.readUnsignedByte();
+            int flags = in.readUnsignedByte();
+            if (magic != GZIP_MAGIC || method != 8) {
+                throw new IOException("not a gzip file");
+            }
+            in.skipBytes(6); // mtime, extra flags, OS
+            if ((flags & FLAG_EXTRA) != 0) {
+                in.skipBytes(Short.reverseBytes(in.readShort()) & 0xffff);
+            }
+            if ((flags & FLAG_NAME) != 0) {
+                readZeroTerminated(in);
+            }
+            if ((flags & FLAG_COMMENT) == 0) {
+                throw new IOException("no segment header");
+            }
+            return parseHeader(readZeroTerminated(in), file, sequence);
+        }
+    }
+
+    static String formatHeader(Summary summary) {
+        StringBuilder header = new StringBuilder(HEADER_MAGIC);
+        LocalDateTime from = summary.getFrom();
+        LocalDateTime to = summary.getTo();
+        header.append(" from=").append(from == null ? "-" : Timestamps.format(from));
+        header.append(" to=").append(to == null ? "-" : Timestamps.format(to));
+        header.append(" records=").append(summary.records).append(" types=");
+        String separator = "";
+        for (Map.Entry<String, Long> type : summary.typeCounts.entrySet()) {
+            header.append(separator).append(type.getKey()).append(':').append(type.getValue());
+            separator = ",";
+        }
+        return header.toString();
+    }
+
+    private static ActivityLogSegment parseHeader(String header, Path file, long sequence) throws IOException {
+        String[] fields = header.split(" ");
+        if (fields.length != 5 || !fields[0].equals(HEADER_MAGIC)) {
+            throw new IOException("unknown segment header: " + header);
+        }
+        String fromText = value(fields[1], "from=");
+        String toText = value(fields[2], "to=");
+        long records = Long.parseLong(value(fields[3], "records="));
+        Map<String, Long> typeCounts = new TreeMap<>();
+        String types = value(fields[4], "types=");
+        if (!types.isEmpty()) {
+            for (String type : types.split(",")) {
+                int colon = type.lastIndexOf(':');
+                typeCounts.put(type.substring(0, colon), Long.parseLong(type.substring(colon + 1)));
+            }
+        }
+        return new ActivityLogSegment(file, sequence, true, fromText.equals("-") ? null : Timestamps.parse(fromText),
+                toText.equals("-") ? null : Timestamps.parse(toText), records, typeCounts);
+    }
+
+    private static String value(String field, String key) throws IOException {
+        if (!field.startsWith(key)) {
+            throw new IOException("expected " + key + " in segment header, found " + field);
+        }
+        return field.substring(key.length());
+    }
+
+    private static String readZeroTerminated(DataInputStream in) throws IOException {
+        StringBuilder text = new StringBuilder();
+        int b;
+        while ((b = in.readUnsignedByte()) != 0) {
+            if (text.length() >= MAX_HEADER_BYTES) {
+                throw new IOException("segment header too long");
+            }
+            text.append((char) b); // gzip header strings are ISO-8859-1
+        }
+        return text.toString();
+    }
+
+    // Event type of an activity log line ("timestamp - Event: TYPE | Data: ..."), OTHER if it has none.
+    // Only letters, digits and '_' count as a type, so every type fits the header syntax.
+    public static String eventTypeOf(String line) {
+        int start = line.indexOf(" - Event: ");
+        if (start < 0) {
+            return OTHER_TYPE;
+        }
+        start += " - Event: ".length();
+        int end = line.indexOf(" |", start);
+        if (end <= start) {
+            return OTHER_TYPE;
+        }
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= 128 || !(Character.isLetterOrDigit(c) || c == '_')) {
+                return OTHER_TYPE;
+            }
+        }
+        return line.substring(start, end);
+    }
+
+    // Timestamp of an activity log line, or null if the line does not start with one.
+    public static LocalDateTime timestampOf(String line) {
+        int end = line.indexOf(" - ");
+        if (end < 16) {
+            return null;
+        }
+        try {
+            return Timestamps.parse(line.substring(0, end));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Running summary of the lines of one segment.
+    static class Summary {
+        // ISO local date-times of one layout sort as text, so lines are compared without parsing each timestamp
+        private String from;
+        private String to;
+        private long records;
+        private final Map<String, Long> typeCounts = new TreeMap<>();
+
+        void add(String line) {
+            int end = line.indexOf(" - ");
+            if (end >= 19 && line.charAt(4) == '-' && line.charAt(10) == 'T' && line.charAt(13) == ':') {
+                String time = line.substring(0, end);
+                if (from == null || time.compareTo(from) < 0) from = time;
+                if (to == null || time.compareTo(to) > 0) to = time;
+            }
+            records++;
+            typeCounts.merge(eventTypeOf(line), 1L, Long::sum);
+        }
+
+        LocalDateTime getFrom() {
+            return parseOrNull(from);
+        }
+
+        LocalDateTime getTo() {
+            return parseOrNull(to);
+        }
+
+        ActivityLogSegment toSegment(Path file, long sequence, boolean compressed) {
+            return new ActivityLogSegment(file, sequence, compressed, getFrom(), getTo(), records, typeCounts);
+        }
+
+        private static LocalDateTime parseOrNull(String text) {
+            try {
+                return text == null ? null : Timestamps.parse(text);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    // Prints the segments of a data directory, or with a filter the matching lines of the segments that may hold
+    // any (skipping the rest by their headers), then of the active activity_log.txt.
+    // Usage: java -cp out com.hospital.service.ActivityLogSegment [dataDir] [eventType|-] [from] [to]
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : System.getProperty("hospital.data.dir", "data"));
+        List<ActivityLogSegment> segments = list(dir);
+        if (args.length < 2) {
+            for (ActivityLogSegment segment : segments) {
+                System.out.printf("%s  %s .. %s  %,d records  %s%n", segment.path.getFileName(), segment.from, segment.to,
+                        segment.records, segment.typeCounts);
+            }
+            return;
+        }
+        String eventType = args[1].equals("-") ? null : args[1];
+        LocalDateTime rangeFrom = args.length > 2 ? Timestamps.parse(args[2]) : null;
+        LocalDateTime rangeTo = args.length > 3 ? Timestamps.parse(args[3]) : null;
+        int skipped = 0;
+        for (ActivityLogSegment segment : segments) {
+            if (!segment.mayContain(eventType, rangeFrom, rangeTo)) {
+                skipped++;
+                continue;
+            }
+            try (BufferedReader reader = segment.openReader()) {
+                printMatches(reader, eventType, rangeFrom, rangeTo);
+            }
+        }
+        Path active = activeFile(dir);
+        if (Files.exists(active)) {
+            try (BufferedReader reader = Files.newBufferedReader(active, StandardCharsets.UTF_8)) {
+                printMatches(reader, eventType, rangeFrom, rangeTo);
+            }
+        }
+        System.err.printf("INFO: %d of %d closed segments skipped by their headers.%n", skipped, segments.size());
+    }
+
+    private static void printMatches(BufferedReader reader, String eventType, LocalDateTime rangeFrom, LocalDateTime rangeTo) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            LocalDateTime time = timestampOf(line);
+            boolean inRange = time == null || ((rangeFrom == null || !time.isBefore(rangeFrom)) && (rangeTo == null || !time.isAfter(rangeTo)));
+            if (inRange && (eventType == null || eventType.equals(eventTypeOf(line)))) {
+                System.out.println(line);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.hospital.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// The activity log as a series of bounded segments instead of one ever-growing file.
+// Lines are appended to the active segment, activity_log.txt, until it reaches the size limit or the age limit
+// (measured from its first line). It is then renamed to activity_log-NNNNNN.txt and a fresh activity_log.txt is
+// started. A single background thread compresses each closed segment to activity_log-NNNNNN.txt.gz, with a header
+// summarising it (see ActivityLogSegment), and then applies the retention policy: compressed segments whose last
+// line is older than the retention period are deleted, then the oldest ones until the total fits the size budget.
+// A crash at any point loses no lines: a closed segment is only deleted once its .gz is complete, and segments
+// left uncompressed (or half-compressed) are picked up again on the next start.
+// Methods are synchronized: the async writer thread calls them in batches, synchronous logging once per line.
+class ActivityLogSegments {
+    static final String ACTIVE_FILE = "activity_log.txt";
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final long CLOSE_WAIT_MILLIS = 5000;
+
+    private final Path dir;
+    private final Path activePath;
+    private final long maxSegmentBytes;
+    private final long maxSegmentMillis;
+    private final int compressionLevel;
+    private final long retentionMillis; // 0 = keep every segment that fits the size budget
+    private final long retentionBytes;  // 0 = no size budget
+    private final ExecutorService compressor;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final StringBuilder pending = new StringBuilder(64 * 1024);
+    private FileChannel channel;
+    private long activeBytes;            // Written to the active segment, plus what is pending
+    private long activeStartMillis = -1; // Time of the active segment's first line, -1 while it is empty
+    private long nextSequence;
+    private boolean closed;
+
+    ActivityLogSegments(Path dir, long maxSegmentBytes, long maxSegmentMillis, int compressionLevel,
+                        long retentionMillis, long retentionBytes) throws IOException {
+        this.dir = dir;
+        this.activePath = dir.resolve(ACTIVE_FILE);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentMillis = maxSegmentMillis;
+        this.compressionLevel = compressionLevel;
+        this.retentionMillis = retentionMillis;
+        this.retentionBytes = retentionBytes;
+        this.compressor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "activity-log-compressor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.channel = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.activeBytes = channel.size();
+        this.activeStartMillis = activeBytes > 0 ? firstLineMillis() : -1;
+        recoverClosedSegments();
+    }
+
+    // Adds one line, first rotating the active segment if it is full or too old.
+    synchronized void append(long timestampMillis, String activity) {
+        if (activeStartMillis < 0) {
+            activeStartMillis = timestampMillis;
+        } else if (!closed && (activeBytes >= maxSegmentBytes || timestampMillis - activeStartMillis >= maxSegmentMillis)) {
+            rotate();
+            activeStartMillis = timestampMillis;
+        }
+        int before = pending.length();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), zone);
+        pending.append(time.format(TIMESTAMP_FORMAT)).append(" - ").append(activity).append(System.lineSeparator());
+        activeBytes += pending.length() - before; // Chars, not UTF-8 bytes: close enough for a size limit
+    }
+
+    // Writes the pending lines to the active segment. After close() (or if it could not be reopened) the file is
+    // opened for each flush instead, so late lines are not lost.
+    synchronized void flush() {
+        if (pending.length() == 0) {
+            return;
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(pending));
+        pending.setLength(0);
+        try {
+            if (channel == null) {
+                try (FileChannel file = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    while (bytes.hasRemaining()) {
+                        file.write(bytes);
+                    }
+                }
+                return;
+            }
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing to activity log: " + e.getMessage());
+        }
+    }
+
+    synchronized void force() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            System.err.println("Error syncing activity log: " + e.getMessage());
+        }
+    }
+
+    // Closes the active segment (which stays active for the next start) and gives a running compression a few
+    // seconds to finish. One that does not is redone on the next start.
+    void close(boolean fsync) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flush();
+            if (fsync) {
+                force();
+            }
+            if (channel != null) {
+                closeChannel();
+                channel = null;
+            }
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Closes the active segment under the next sequence number and queues it for compression.
+    synchronized void rotate() {
+        if (channel == null || activeBytes == 0) {
+            return;
+        }
+        flush();
+        closeChannel();
+        long sequence = nextSequence++;
+        Path closedPath = dir.resolve(ActivityLogSegment.fileName(sequence, false));
+        try {
+            move(activePath, closedPath);
+            compressor.execute(() -> compress(sequence));
+        } catch (IOException e) {
+            System.err.println("Error closing activity log segment " + closedPath + ": " + e.getMessage());
+        }
+        try {
+            channel = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            activeBytes = channel.size(); // Non-zero only if the move failed and the old file is still active
+        } catch (IOException e) {
+            System.err.println("Error opening activity log " + activePath + ": " + e.getMessage());
+            channel = null;
+        }
+    }
+
+    // Numbers new segments after the highest one on disk, throws away half-written .gz files, and queues every
+    // closed segment that is still plain text for compression.
+    private void recoverClosedSegments() throws IOException {
+        List<Long> uncompressed = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, ActivityLogSegment.FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                long sequence = ActivityLogSegment.sequenceOf(name);
+                if (sequence >= 0) {
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                    if (name.endsWith(ActivityLogSegment.PLAIN_SUFFIX)) {
+                        uncompressed.add(sequence);
+                    }
+                }
+            }
+        }
+        uncompressed.sort(null);
+        for (long sequence : uncompressed) {
+            compressor.execute(() -> compress(sequence));
+        }
+        compressor.execute(this::applyRetention);
+    }
+
+    // Runs on the compressor thread. The summary is read in a first pass, because the gzip header (where it goes)
+    // precedes the compressed data; the second pass usually reads the file back from the page cache.
+    private void compress(long sequence) {
+        Path plain = dir.resolve(ActivityLogSegment.fileName(sequence, false));
+        Path compressed = dir.resolve(ActivityLogSegment.fileName(sequence, true));
+        Path temp = dir.resolve(compressed.getFileName() + TEMP_SUFFIX);
+        try {
+            ActivityLogSegment.Summary summary = new ActivityLogSegment.Summary();
+            try (BufferedReader reader = Files.newBufferedReader(plain, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    summary.add(line);
+                }
+            }
+            writeGzip(plain, temp, ActivityLogSegment.formatHeader(summary));
+            move(temp, compressed);
+            Files.delete(plain);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error compressing activity log segment " + plain + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Removed on the next start
+            }
+            return;
+        }
+        applyRetention();
+    }
+
+    // gzip (RFC 1952) with the segment header in the comment field, which GZIPOutputStream cannot write.
+    private void writeGzip(Path source, Path target, String comment) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        Deflater deflater = new Deflater(compressionLevel, true);
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream file = new BufferedOutputStream(Files.newOutputStream(target), COPY_BUFFER_BYTES)) {
+            long mtime = System.currentTimeMillis() / 1000;
+            file.write(new byte[]{0x1f, (byte) 0x8b, 8, 16, (byte) mtime, (byte) (mtime >> 8), (byte) (mtime >> 16), (byte) (mtime >> 24), 0, (byte) 255});
+            file.write(comment.getBytes(StandardCharsets.ISO_8859_1));
+            file.write(0);
+            DeflaterOutputStream deflated = new DeflaterOutputStream(file, deflater, COPY_BUFFER_BYTES);
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                deflated.write(buffer, 0, read);
+                size += read;
+            }
+            deflated.finish();
+            writeIntLE(file, (int) crc.getValue());
+            writeIntLE(file, (int) size); // ISIZE is the length modulo 2^32
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Deletes compressed segments past the retention period, then the oldest until the rest fit the size budget.
+    private void applyRetention() {
+        if (retentionMillis <= 0 && retentionBytes <= 0) {
+            return;
+        }
+        List<ActivityLogSegment> compressed = new ArrayList<>();
+        long totalBytes = 0;
+        for (ActivityLogSegment segment : ActivityLogSegment.list(dir)) {
+            if (segment.isCompressed()) {
+                compressed.add(segment);
+                totalBytes += sizeOf(segment.getPath());
+            }
+        }
+        LocalDateTime cutoff = retentionMillis > 0
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(System.currentTimeMillis() - retentionMillis), zone) : null;
+        int deleted = 0;
+        for (ActivityLogSegment segment : compressed) { // Oldest first
+            boolean expired = cutoff != null && segment.getTo() != null && segment.getTo().isBefore(cutoff);
+            boolean overBudget = retentionBytes > 0 && totalBytes > retentionBytes;
+            if (!expired && !overBudget) {
+                break;
+            }
+            long bytes = sizeOf(segment.getPath());
+            try {
+                Files.deleteIfExists(segment.getPath());
+                totalBytes -= bytes;
+                deleted++;
+            } catch (IOException e) {
+                System.err.println("Error deleting activity log segment " + segment.getPath() + ": " + e.getMessage());
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("INFO: Deleted " + deleted + " activity log segment(s) under the retention policy.");
+        }
+    }
+
+    // Time of the active segment's first line, or now if it does not start with a timestamp.
+    private long firstLineMillis() {
+        try (BufferedReader reader = Files.newBufferedReader(activePath, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            LocalDateTime time = line == null ? null : ActivityLogSegment.timestampOf(line);
+            if (time != null) {
+                return time.atZone(zone).toInstant().toEpochMilli();
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading activity log " + activePath + ": " + e.getMessage());
+        }
+        return System.currentTimeMillis();
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing activity log: " + e.getMessage());
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >> 8);
+        out.write(value >> 16);
+        out.write(value >> 24);
+    }
+}
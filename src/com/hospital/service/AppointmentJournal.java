@@ -0,0 +1,232 @@
+package com.hospital.service;
+
+import com.hospital.model.Appointment;
+import com.hospital.util.FileSwap;
+import com.hospital.util.RecordFields;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+// Write-ahead journal for appointments.txt.
+// Every mutation appends the full record line of the changed appointment to appointments.journal,
+// so a write costs one line instead of a rewrite of the whole snapshot. On load the snapshot is
+// replayed with the journal (last record per appointment ID wins). Once the journal reaches the
+// compaction threshold it is rotated to appointments.journal.compacting and a background thread
+// folds it into a new snapshot, while new mutations keep going to a fresh journal.
+class AppointmentJournal {
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final int compactionThreshold;
+    private final Object snapshotLock = new Object(); // Guards every rewrite of the snapshot file
+    private final ExecutorService compactor;
+
+    private BufferedWriter writer;
+    private int journalRecords;
+
+    AppointmentJournal(String snapshotFile, String journalFile, int compactionThreshold) {
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.journalFile = Paths.get(journalFile);
+        this.compactingFile = Paths.get(journalFile + ".compacting");
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "appointment-journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Merges the journal (and any half-finished compaction) over the loaded snapshot, keeping snapshot order.
+    synchronized List<Appointment> replay(List<Appointment> snapshot) {
+        Map<String, Appointment> merged = new LinkedHashMap<>();
+        for (Appointment appointment : snapshot) {
+            merged.put(appointment.getAppointmentId(), appointment);
+        }
+        boolean interruptedCompaction = Files.exists(compactingFile);
+        if (interruptedCompaction) {
+            replayFile(compactingFile, merged);
+        }
+        journalRecords = replayFile(journalFile, merged);
+        if (interruptedCompaction) {
+            compactor.submit(this::compact); // Finish what a previous run started
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private int replayFile(Path file, Map<String, Appointment> merged) {
+        int records = 0;
+        if (!Files.exists(file)) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                Appointment appointment = Appointment.fromFileString(line);
+                if (appointment != null) {
+                    merged.put(appointment.getAppointmentId(), appointment);
+                    records++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error replaying appointment journal " + file + ": " + e.getMessage());
+        }
+        return records;
+    }
+
+    synchronized void append(Appointment appointment) {
+        append(Collections.singletonList(appointment));
+    }
+
+    // Several records in one write: a batch costs a single flush.
+    synchronized void append(Collection<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            for (Appointment appointment : appointments) {
+                writer.write(appointment.toFileString());
+                writer.newLine();
+            }
+            writer.flush();
+            journalRecords += appointments.size();
+        } catch (IOException e) {
+            System.err.println("Error appending to appointment journal: " + e.getMessage());
+            return;
+        }
+        if (journalRecords >= compactionThreshold && !Files.exists(compactingFile)) {
+            rotateAndCompact();
+        }
+    }
+
+    private void rotateAndCompact() {
+        try {
+            closeWriter();
+            Files.move(journalFile, compactingFile, StandardCopyOption.REPLACE_EXISTING);
+            journalRecords = 0;
+            compactor.submit(this::compact);
+        } catch (IOException e) {
+            System.err.println("Error rotating appointment journal: " + e.getMessage());
+        }
+    }
+
+    // Runs on the compactor thread: snapshot + rotated journal -> new snapshot, swapped in atomically.
+    private void compact() {
+        synchronized (snapshotLock) {
+            if (!Files.exists(compactingFile)) {
+                return; // A full snapshot rewrite already superseded this journal segment
+            }
+            Map<String, String> lines = new LinkedHashMap<>();
+            try {
+                foldLines(snapshotFile, lines);
+                foldLines(compactingFile, lines);
+                Path tmp = FileSwap.tempFileFor(snapshotFile);
+                try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (String line : lines.values()) {
+                        out.write(line);
+                        out.newLine();
+                    }
+                }
+                FileSwap.moveReplacing(tmp, snapshotFile);
+                Files.delete(compactingFile);
+                System.out.println("INFO: Compacted appointment journal into " + snapshotFile + " (" + lines.size() + " appointments).");
+            } catch (IOException e) {
+                System.err.println("Error compacting appointment journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Folding works on raw lines keyed by the appointment ID (first field); no need to parse dates here.
+    private void foldLines(Path file, Map<String, String> lines) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) continue;
+                lines.put(recordId(line), line);
+            }
+        }
+    }
+
+    // Opens the snapshot together with the journal records not yet folded into it (ID -> latest line).
+    // Both are taken under the snapshot lock, so a concurrent compaction cannot make them disagree;
+    // the open reader keeps reading the old snapshot file even if a compaction replaces it afterwards.
+    SnapshotView openSnapshotView() throws IOException {
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                Map<String, String> overlay = new LinkedHashMap<>();
+                foldLines(compactingFile, overlay);
+                foldLines(journalFile, overlay);
+                BufferedReader reader = Files.exists(snapshotFile)
+                        ? Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)
+                        : new BufferedReader(new StringReader(""));
+                return new SnapshotView(reader, overlay);
+            }
+        }
+    }
+
+    static final class SnapshotView {
+        final BufferedReader snapshotReader;
+        final Map<String, String> journalOverlay;
+
+        SnapshotView(BufferedReader snapshotReader, Map<String, String> journalOverlay) {
+            this.snapshotReader = snapshotReader;
+            this.journalOverlay = journalOverlay;
+        }
+    }
+
+    // Appointment ID of a raw record line.
+    static String recordId(String line) {
+        return RecordFields.field(line, 0);
+    }
+
+    // A full snapshot write makes every journal record redundant, so the journal is truncated with it - but only
+    // once snapshotWriter reports the new snapshot is in place. After a failed write the journal is kept.
+    void rewriteSnapshot(BooleanSupplier snapshotWriter) {
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                if (!snapshotWriter.getAsBoolean()) {
+                    return;
+                }
+                try {
+                    closeWriter();
+                    Files.deleteIfExists(journalFile);
+                    Files.deleteIfExists(compactingFile);
+                    journalRecords = 0;
+                } catch (IOException e) {
+                    System.err.println("Error truncating appointment journal: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.hospital.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous activity log writer.
+// Callers only stamp the time and put the line into a bounded lock-free ring buffer; a single writer thread
+// drains it in batches and appends each batch to the segmented log (which keeps its active file open).
+class AsyncActivityLogWriter {
+    enum FsyncPolicy { NEVER, EVERY_BATCH, INTERVAL }
+    enum OverflowPolicy { BLOCK, DROP }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long ERROR_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final LogRingBuffer<LogRecord> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final ActivityLogSegments log;
+    private final Thread writerThread;
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private volatile boolean running = true;
+
+    AsyncActivityLogWriter(ActivityLogSegments log, int bufferSize, int batchSize, long flushIntervalMillis,
+                           FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, OverflowPolicy overflowPolicy) {
+        this.buffer = new LogRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.log = log;
+        this.writerThread = new Thread(this::drainLoop, "activity-log-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "activity-log-shutdown"));
+    }
+
+    void submit(String activity) {
+        LogRecord record = new LogRecord(System.currentTimeMillis(), activity);
+        while (!buffer.offer(record)) {
+            if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                droppedRecords.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(IDLE_PARK_NANOS); // BLOCK: wait for the writer to free a slot
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writerThread); // A full batch is waiting, no need to sit out the flush interval
+        }
+    }
+
+    long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    int getQueueDepth() {
+        return buffer.size();
+    }
+
+    // Stops accepting records and drains what is buffered into the log (which the caller closes).
+    void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long dropped = droppedRecords.get();
+        if (dropped > 0) {
+            System.err.println("Warning: " + dropped + " activity log records were dropped because the log buffer was full.");
+        }
+    }
+
+    private void drainLoop() {
+        int pendingRecords = 0;
+        long lastFlush = System.nanoTime();
+        long lastFsync = lastFlush;
+        long lastErrorReport = lastFlush - ERROR_REPORT_INTERVAL_NANOS;
+        long unreportedErrors = 0;
+        while (true) {
+            boolean stopping = !running;
+            boolean batchFull = false;
+            try {
+                LogRecord record;
+                while (pendingRecords < batchSize && (record = buffer.poll()) != null) {
+                    log.append(record.timestampMillis, record.activity);
+                    pendingRecords++;
+                }
+                long now = System.nanoTime();
+                batchFull = pendingRecords >= batchSize;
+                if (pendingRecords > 0 && (batchFull || stopping || now - lastFlush >= flushIntervalNanos)) {
+                    pendingRecords = 0;
+                    lastFlush = now;
+                    log.flush();
+                    if (fsyncPolicy == FsyncPolicy.EVERY_BATCH || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsync >= fsyncIntervalNanos)) {
+                        lastFsync = now;
+                        log.force();
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Keep draining: a dead writer thread would leave BLOCK producers waiting forever.
+                // The batch in hand may be lost; errors are reported at most every 10 seconds.
+                pendingRecords = 0;
+                unreportedErrors++;
+                long now = System.nanoTime();
+                if (now - lastErrorReport >= ERROR_REPORT_INTERVAL_NANOS) {
+                    System.err.println("Error writing to activity log (" + unreportedErrors + " since the last report): " + e);
+                    lastErrorReport = now;
+                    unreportedErrors = 0;
+                }
+            }
+            if (stopping && buffer.size() == 0 && pendingRecords == 0) {
+                break;
+            }
+            if (!batchFull && buffer.size() == 0) {
+                long untilFlush = flushIntervalNanos - (System.nanoTime() - lastFlush);
+                LockSupport.parkNanos(pendingRecords > 0 ? Math.max(IDLE_PARK_NANOS, untilFlush) : flushIntervalNanos);
+            }
+        }
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            try {
+                log.force();
+            } catch (RuntimeException e) {
+                System.err.println("Error syncing activity log: " + e);
+            }
+        }
+    }
+
+    private static class LogRecord {
+        private final long timestampMillis;
+        private final String activity;
+
+        LogRecord(long timestampMillis, String activity) {
+            this.timestampMillis = timestampMillis;
+            this.activity = activity;
+        }
+    }
+}
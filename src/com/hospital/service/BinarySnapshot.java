@@ -0,0 +1,208 @@
+package com.hospital.service;
+
+import com.hospital.model.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Compact binary copy of a .txt data file, loaded through a memory-mapped FileChannel.
+//
+// Layout: header  = magic "HMS1", format version, size and mtime of the .txt it was converted from, record count
+//         records = strings as int length + UTF-8 bytes (-1 for null), ints/longs as-is,
+//                   date/times as epoch minutes (UTC) with a status byte whose high bit flags an extra
+//                   sub-minute nanosecond field, enums as one ordinal byte.
+// A snapshot is only used while the source .txt still has the recorded size and mtime, so a .txt edited
+// by hand (or rewritten by journal compaction) is simply converted again.
+public final class BinarySnapshot {
+    private static final int MAGIC = 0x484D5331; // "HMS1"
+    private static final int VERSION = 1;
+    private static final int SUB_MINUTE_FLAG = 0x80;
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final Role[] ROLES = Role.values();
+
+    private BinarySnapshot() {
+    }
+
+    public interface Codec<T> {
+        void write(DataOutputStream out, T item) throws IOException;
+        T read(Reader in);
+    }
+
+    public static final Codec<Patient> PATIENTS = new Codec<Patient>() {
+        public void write(DataOutputStream out, Patient p) throws IOException {
+            writeString(out, p.getId());
+            writeString(out, p.getName());
+            writeString(out, p.getContactNumber());
+            out.writeInt(p.getAge());
+            writeString(out, p.getGender());
+            writeString(out, p.getAddress());
+        }
+
+        public Patient read(Reader in) {
+            return new Patient(in.string(), in.string(), in.string(), in.int32(), in.string(), in.string());
+        }
+    };
+
+    public static final Codec<Doctor> DOCTORS = new Codec<Doctor>() {
+        public void write(DataOutputStream out, Doctor d) throws IOException {
+            writeString(out, d.getId());
+            writeString(out, d.getName());
+            writeString(out, d.getContactNumber());
+            writeString(out, d.getSpecialization());
+            writeString(out, d.getDepartment());
+        }
+
+        public Doctor read(Reader in) {
+            return new Doctor(in.string(), in.string(), in.string(), in.string(), in.string());
+        }
+    };
+
+    public static final Codec<Appointment> APPOINTMENTS = new Codec<Appointment>() {
+        public void write(DataOutputStream out, Appointment a) throws IOException {
+            writeString(out, a.getAppointmentId());
+            writeString(out, a.getPatientId());
+            writeString(out, a.getDoctorId());
+            writeString(out, a.getDescription());
+            long epochSecond = a.getDateTime().toEpochSecond(ZoneOffset.UTC);
+            long subMinuteNanos = Math.floorMod(epochSecond, 60L) * 1_000_000_000L + a.getDateTime().getNano();
+            out.writeLong(Math.floorDiv(epochSecond, 60L));
+            out.writeByte(a.getStatus().ordinal() | (subMinuteNanos != 0 ? SUB_MINUTE_FLAG : 0));
+            if (subMinuteNanos != 0) {
+                out.writeLong(subMinuteNanos);
+            }
+        }
+
+        public Appointment read(Reader in) {
+            String id = in.string(), patientId = in.string(), doctorId = in.string(), description = in.string();
+            long epochMinute = in.int64();
+            int statusByte = in.uint8();
+            long subMinuteNanos = (statusByte & SUB_MINUTE_FLAG) != 0 ? in.int64() : 0;
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochMinute * 60 + subMinuteNanos / 1_000_000_000L,
+                    (int) (subMinuteNanos % 1_000_000_000L), ZoneOffset.UTC);
+            return new Appointment(id, patientId, doctorId, dateTime, description, STATUSES[statusByte & ~SUB_MINUTE_FLAG]);
+        }
+    };
+
+    public static final Codec<User> USERS = new Codec<User>() {
+        public void write(DataOutputStream out, User u) throws IOException {
+            writeString(out, u.getUsername());
+            writeString(out, u.getPasswordHash());
+            out.writeByte(u.getRole().ordinal());
+            writeString(out, u.getEntityId());
+        }
+
+        public User read(Reader in) {
+            return new User(in.string(), in.string(), ROLES[in.uint8()], in.string());
+        }
+    };
+
+    // Path of the binary snapshot kept next to a .txt data file, e.g. data/patients.bin.
+    public static Path snapshotPathFor(String textFile) {
+        return Paths.get(textFile.replaceFirst("\\.txt$", "") + ".bin");
+    }
+
+    public static <T> void write(Path snapshot, Path sourceText, Collection<T> items, Codec<T> codec) throws IOException {
+        Path tmp = Paths.get(snapshot + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(sourceText));
+            out.writeLong(Files.getLastModifiedTime(sourceText).toMillis());
+            out.writeInt(items.size());
+            for (T item : items) {
+                codec.write(out, item);
+            }
+        }
+        try {
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Returns null when there is no usable snapshot for the current state of the source .txt.
+    public static <T> List<T> readIfFresh(Path snapshot, Path sourceText, Codec<T> codec) throws IOException {
+        if (!Files.exists(snapshot) || !Files.exists(sourceText)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 28 || size > Integer.MAX_VALUE) { // One mapping covers up to 2 GB
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != Files.size(sourceText)
+                    || buffer.getLong() != Files.getLastModifiedTime(sourceText).toMillis()) {
+                return null;
+            }
+            int count = buffer.getInt();
+            List<T> items = new ArrayList<>(count);
+            Reader reader = new Reader(buffer);
+            for (int i = 0; i < count; i++) {
+                items.add(codec.read(reader));
+            }
+            return items;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Sequential decoder over the mapped snapshot; reuses one scratch array for string bytes.
+    public static final class Reader {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public String string() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        public int int32() {
+            return buffer.getInt();
+        }
+
+        public long int64() {
+            return buffer.getLong();
+        }
+
+        public int uint8() {
+            return buffer.get() & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.hospital.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams a CSV file through parse -> validate/create (RowMapper) -> accept (RowSink), one row at a time,
+// so even very large files are never held in memory as text. A row whose mapper or sink throws
+// IllegalArgumentException is recorded in the report and skipped; the rest of the file still goes through.
+//
+// Format: comma-separated, fields may be wrapped in double quotes (a doubled quote inside stands for one quote).
+// A first row holding exactly the expected column names (any case, spaces ignored) is a header and skipped;
+// any other first row is data.
+public final class CsvImporter {
+    private CsvImporter() {
+    }
+
+    public interface RowMapper<T> {
+        T map(String[] fields); // Throws IllegalArgumentException for an invalid row
+    }
+
+    public interface RowSink<T> {
+        T accept(T entity); // Returns the entity as stored (e.g. with its final ID)
+    }
+
+    public static <T> ImportReport<T> importFile(Path csvFile, String[] columnNames, RowMapper<T> mapper, RowSink<T> sink) {
+        int columns = columnNames.length;
+        ImportReport<T> report = new ImportReport<>(csvFile.toString());
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                if (lineNumber == 1 && isHeader(line, columnNames)) continue;
+                report.rowRead();
+                try {
+                    String[] fields = parseLine(line);
+                    if (fields.length != columns) {
+                        throw new IllegalArgumentException("expected " + columns + " columns but found " + fields.length);
+                    }
+                    report.addImported(sink.accept(mapper.map(fields)));
+                } catch (IllegalArgumentException e) {
+                    report.addError(lineNumber, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading import file " + csvFile + ": " + e);
+            report.addError(0, "cannot read file: " + e);
+        }
+        return report;
+    }
+
+    private static boolean isHeader(String line, String[] columnNames) {
+        String[] fields;
+        try {
+            fields = parseLine(line);
+        } catch (IllegalArgumentException e) {
+            return false; // Reported as a data row
+        }
+        if (fields.length != columnNames.length) {
+            return false;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (!fields[i].trim().equalsIgnoreCase(columnNames[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Validation helpers for row mappers.
+    public static String required(String[] fields, int index, String column) {
+        String value = fields[index].trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return value;
+    }
+
+    public static int requiredInt(String[] fields, int index, String column, int min, int max) {
+        String value = required(fields, index, column);
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new IllegalArgumentException(column + " must be between " + min + " and " + max + ": " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -1,39 +1,148 @@
 package com.hospital.service;
 
+import com.hospital.metrics.Metrics;
 import com.hospital.model.*;
+import com.hospital.security.PasswordHasher;
+import com.hospital.util.FileSwap;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class FileManager {
     private static FileManager instance;
 
-    private static final String DATA_DIR = "data/";
+    private static final String DATA_DIR = System.getProperty("hospital.data.dir", "data") + "/"; // e.g. -Dhospital.data.dir=/tmp/bench-data
     private static final String PATIENTS_FILE = DATA_DIR + "patients.txt";
     private static final String DOCTORS_FILE = DATA_DIR + "doctors.txt";
     private static final String APPOINTMENTS_FILE = DATA_DIR + "appointments.txt";
     private static final String ACTIVITY_LOG_FILE = DATA_DIR + "activity_log.txt";
     private static final String USERS_FILE = DATA_DIR + "users.txt";
+    private static final String APPOINTMENTS_JOURNAL_FILE = DATA_DIR + "appointments.journal";
+    private static final String AUDIT_LOG_FILE = DATA_DIR + "audit_log.txt";
+    // Present once the data files use the escaped record format (see RecordFields)
+    private static final String FORMAT_MARKER_FILE = DATA_DIR + "format.v2";
+
+    // Journal mode appends single appointment records instead of rewriting appointments.txt on every change.
+    // Disable with -Dhospital.journal.enabled=false; tune compaction with -Dhospital.journal.compactThreshold=N.
+    private static final boolean JOURNAL_ENABLED = Boolean.parseBoolean(System.getProperty("hospital.journal.enabled", "true"));
+    private static final int JOURNAL_COMPACT_THRESHOLD = Integer.getInteger("hospital.journal.compactThreshold", 1000);
+
+    // Async mode hands activity log lines to a background writer instead of opening the log file per event.
+    // Tune with -Dhospital.log.bufferSize, .batchSize, .flushIntervalMs, .fsync (NEVER|EVERY_BATCH|INTERVAL),
+    // .fsyncIntervalMs and .overflow (BLOCK|DROP); disable with -Dhospital.log.async=false.
+    private static final boolean ASYNC_LOG_ENABLED = Boolean.parseBoolean(System.getProperty("hospital.log.async", "true"));
+
+    // The activity log is rotated into segments of at most -Dhospital.log.segmentMaxMB (64) or
+    // -Dhospital.log.segmentMaxMinutes (1440), which are gzipped in the background (-Dhospital.log.gzipLevel, 0-9, default 6).
+    // Retention: -Dhospital.log.retentionDays and -Dhospital.log.retentionMaxMB (0 = keep everything, the default).
+    private static final long LOG_SEGMENT_MAX_BYTES = Long.getLong("hospital.log.segmentMaxMB", 64) << 20;
+    private static final long LOG_SEGMENT_MAX_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("hospital.log.segmentMaxMinutes", 1440));
+    private static final int LOG_GZIP_LEVEL = Integer.getInteger("hospital.log.gzipLevel", 6);
+    private static final long LOG_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(Long.getLong("hospital.log.retentionDays", 0));
+    private static final long LOG_RETENTION_BYTES = Long.getLong("hospital.log.retentionMaxMB", 0) << 20;
+
+    // Binary mode keeps a memory-mapped .bin copy next to each .txt file for fast startup (-Dhospital.storage.binary=true).
+    // The .txt files stay authoritative; a missing or outdated .bin is (re)built from its .txt on load.
+    private static final boolean BINARY_SNAPSHOTS_ENABLED = Boolean.getBoolean("hospital.storage.binary");
+
+    // Text files at least this large are parsed in parallel byte ranges (-Dhospital.startup.parallelParseMinBytes=N, 0 = always).
+    private static final long PARALLEL_PARSE_MIN_BYTES = Long.getLong("hospital.startup.parallelParseMinBytes", 8L << 20);
+
+    private final AppointmentJournal appointmentJournal;
+    private ActivityLogSegments activityLog;
+    private AsyncActivityLogWriter asyncLogWriter;
 
     private FileManager() {
+        this.appointmentJournal = new AppointmentJournal(APPOINTMENTS_FILE, APPOINTMENTS_JOURNAL_FILE, JOURNAL_COMPACT_THRESHOLD);
         try {
             Files.createDirectories(Paths.get(DATA_DIR));
+            upgradeLegacyDataFiles();
             ensureFileExists(PATIENTS_FILE);
             ensureFileExists(DOCTORS_FILE);
             ensureFileExists(APPOINTMENTS_FILE);
             ensureFileExists(ACTIVITY_LOG_FILE);
             ensureFileExists(USERS_FILE);
             initializeDefaultUsers();
+            activityLog = new ActivityLogSegments(Paths.get(DATA_DIR), LOG_SEGMENT_MAX_BYTES, LOG_SEGMENT_MAX_MILLIS,
+                    LOG_GZIP_LEVEL, LOG_RETENTION_MILLIS, LOG_RETENTION_BYTES);
+            if (ASYNC_LOG_ENABLED) {
+                asyncLogWriter = new AsyncActivityLogWriter(activityLog,
+                        Integer.getInteger("hospital.log.bufferSize", 8192),
+                        Integer.getInteger("hospital.log.batchSize", 256),
+                        Long.getLong("hospital.log.flushIntervalMs", 200),
+                        AsyncActivityLogWriter.FsyncPolicy.valueOf(System.getProperty("hospital.log.fsync", "NEVER").toUpperCase()),
+                        Long.getLong("hospital.log.fsyncIntervalMs", 1000),
+                        AsyncActivityLogWriter.OverflowPolicy.valueOf(System.getProperty("hospital.log.overflow", "BLOCK").toUpperCase()));
+                AsyncActivityLogWriter writer = asyncLogWriter;
+                Metrics.gauge("activityLog.queueDepth", writer::getQueueDepth);
+                Metrics.gauge("activityLog.dropped", writer::getDroppedRecords); // Only ever non-zero with overflow=DROP
+            }
         } catch (IOException e) {
             System.err.println("CRITICAL Error initializing FileManager: " + e.getMessage());
             // Consider exiting or handling more gracefully if core files can't be set up.
         }
     }
 
+    // Before values were escaped, a backslash in a data file was a literal character (commas were always separators,
+    // and a record could not hold a line break). Doubling every backslash keeps those values as they were in the
+    // escaped format. A data directory without the format marker is from such a version; it is upgraded once.
+    private void upgradeLegacyDataFiles() throws IOException {
+        Path marker = Paths.get(FORMAT_MARKER_FILE);
+        if (Files.exists(marker)) {
+            return;
+        }
+        String[] dataFiles = {PATIENTS_FILE, DOCTORS_FILE, APPOINTMENTS_FILE, APPOINTMENTS_JOURNAL_FILE,
+                APPOINTMENTS_JOURNAL_FILE + ".compacting", USERS_FILE};
+        for (String filePath : dataFiles) {
+            Path file = Paths.get(filePath);
+            if (Files.exists(file) && containsBackslash(file)) {
+                Path tmp = FileSwap.tempFileFor(file);
+                try (BufferedReader reader = openText(file);
+                     BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        writer.write(line.replace("\\", "\\\\"));
+                        writer.newLine();
+                    }
+                }
+                FileSwap.moveReplacing(tmp, file);
+                System.out.println("INFO: Upgraded " + filePath + " to the escaped record format.");
+            }
+        }
+        Files.write(marker, new byte[0]);
+    }
+
+    // Byte 0x5C is a backslash in UTF-8 and in every charset older versions may have written.
+    private static boolean containsBackslash(Path file) throws IOException {
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    if (chunk[i] == '\\') {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     private void ensureFileExists(String filePath) throws IOException {
         File file = new File(filePath);
         if (!file.exists()) {
@@ -50,9 +159,9 @@ public class FileManager {
         if (usersFile.length() == 0) { // Check if file is empty
             System.out.println("INFO: No users found in " + USERS_FILE + ". Creating default users.");
             List<User> defaultUsers = new ArrayList<>();
-            defaultUsers.add(new User("staff", "staff123", Role.STAFF));
-            defaultUsers.add(new User("doctor1", "doc123", Role.DOCTOR, "DOC-SAMPLE1")); // For testing
-            defaultUsers.add(new User("doctor2", "doc456", Role.DOCTOR, "DOC-SAMPLE2")); // For testing
+            defaultUsers.add(new User("staff", PasswordHasher.hash("staff123"), Role.STAFF));
+            defaultUsers.add(new User("doctor1", PasswordHasher.hash("doc123"), Role.DOCTOR, "DOC-SAMPLE1")); // For testing
+            defaultUsers.add(new User("doctor2", PasswordHasher.hash("doc456"), Role.DOCTOR, "DOC-SAMPLE2")); // For testing
             saveUsers(defaultUsers); // This uses the saveData method
             System.out.println("INFO: Default users (staff/staff123, doctor1/doc123 [DOC-SAMPLE1], doctor2/doc456 [DOC-SAMPLE2]) created.");
             System.out.println("IMPORTANT: For doctor login to manage appointments, ensure a Doctor with matching entity ID exists (e.g., DOC-SAMPLE1).");
@@ -67,17 +176,37 @@ public class FileManager {
         return instance;
     }
 
-    private <T> void saveData(String filePath, List<T> dataList, java.util.function.Function<T, String> toStringFunction) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) { // Overwrites existing file
-            for (T item : dataList) {
-                writer.write(toStringFunction.apply(item));
-                writer.newLine();
+    // Writes the whole file next to the old one and then swaps it in, so a failed write leaves the old file intact.
+    // Returns false (after reporting the error) if the file was not replaced.
+    private <T> boolean saveData(String filePath, Collection<T> dataList, java.util.function.Function<T, String> toStringFunction) {
+        Path file = Paths.get(filePath);
+        Path tmp = FileSwap.tempFileFor(file);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (T item : dataList) {
+                    writer.write(toStringFunction.apply(item));
+                    writer.newLine();
+                }
             }
+            FileSwap.moveReplacing(tmp, file);
+            return true;
         } catch (IOException e) {
             System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // Overwritten by the next save
+            }
+            return false;
         }
     }
 
+    // Data files are UTF-8 in every path. Undecodable bytes (e.g. a file written in another charset by an older
+    // version) become U+FFFD, as in ParallelTextLoader, instead of failing the whole load.
+    private static BufferedReader openText(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
     private <T> List<T> loadData(String filePath, java.util.function.Function<String, T> fromStringFunction) {
         List<T> dataList = new ArrayList<>();
         File file = new File(filePath);
@@ -85,7 +214,14 @@ public class FileManager {
             System.err.println("Error: File " + filePath + " does not exist or cannot be read.");
             return dataList; // Return empty list
         }
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+        if (file.length() >= PARALLEL_PARSE_MIN_BYTES) {
+            try {
+                return ParallelTextLoader.load(file.toPath(), fromStringFunction);
+            } catch (IOException e) {
+                System.err.println("Error parsing " + filePath + " in parallel, reading it sequentially: " + e.getMessage());
+            }
+        }
+        try (BufferedReader reader = openText(file.toPath())) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (!line.trim().isEmpty()) {
@@ -101,17 +237,191 @@ public class FileManager {
         return dataList;
     }
 
-    public void savePatients(List<Patient> patients) { saveData(PATIENTS_FILE, patients, Patient::toFileString); }
-    public List<Patient> loadPatients() { return loadData(PATIENTS_FILE, Patient::fromFileString); }
-    public void saveDoctors(List<Doctor> doctors) { saveData(DOCTORS_FILE, doctors, Doctor::toFileString); }
-    public List<Doctor> loadDoctors() { return loadData(DOCTORS_FILE, Doctor::fromFileString); }
-    public void saveAppointments(List<Appointment> appointments) { saveData(APPOINTMENTS_FILE, appointments, Appointment::toFileString); }
-    public List<Appointment> loadAppointments() { return loadData(APPOINTMENTS_FILE, Appointment::fromFileString); }
-    public void saveUsers(List<User> users) { saveData(USERS_FILE, users, User::toFileString); }
-    public List<User> loadUsers() { return loadData(USERS_FILE, User::fromFileString); }
+    private <T> boolean saveSnapshot(String filePath, Collection<T> dataList, java.util.function.Function<T, String> toStringFunction,
+                                     BinarySnapshot.Codec<T> codec) {
+        long start = Metrics.start();
+        boolean saved = saveData(filePath, dataList, toStringFunction);
+        if (saved && BINARY_SNAPSHOTS_ENABLED) {
+            writeBinarySnapshot(filePath, dataList, codec);
+        }
+        recordTime("save", filePath, start);
+        return saved;
+    }
+
+    private <T> List<T> loadSnapshot(String filePath, java.util.function.Function<String, T> fromStringFunction,
+                                     BinarySnapshot.Codec<T> codec) {
+        if (!BINARY_SNAPSHOTS_ENABLED) {
+            return loadData(filePath, fromStringFunction);
+        }
+        try {
+            List<T> dataList = BinarySnapshot.readIfFresh(BinarySnapshot.snapshotPathFor(filePath), Paths.get(filePath), codec);
+            if (dataList != null) {
+                return dataList;
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading binary snapshot for " + filePath + ", falling back to text: " + e.getMessage());
+        }
+        List<T> dataList = loadData(filePath, fromStringFunction);
+        writeBinarySnapshot(filePath, dataList, codec); // Automatic conversion for the next startup
+        return dataList;
+    }
+
+    private <T> void writeBinarySnapshot(String filePath, Collection<T> dataList, BinarySnapshot.Codec<T> codec) {
+        try {
+            BinarySnapshot.write(BinarySnapshot.snapshotPathFor(filePath), Paths.get(filePath), dataList, codec);
+        } catch (IOException e) {
+            System.err.println("Error writing binary snapshot for " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    public void savePatients(Collection<Patient> patients) { saveSnapshot(PATIENTS_FILE, patients, Patient::toFileString, BinarySnapshot.PATIENTS); }
+    public List<Patient> loadPatients() { return timedLoad(PATIENTS_FILE, () -> loadSnapshot(PATIENTS_FILE, Patient::fromFileString, BinarySnapshot.PATIENTS)); }
+    public void saveDoctors(Collection<Doctor> doctors) { saveSnapshot(DOCTORS_FILE, doctors, Doctor::toFileString, BinarySnapshot.DOCTORS); }
+    public List<Doctor> loadDoctors() { return timedLoad(DOCTORS_FILE, () -> loadSnapshot(DOCTORS_FILE, Doctor::fromFileString, BinarySnapshot.DOCTORS)); }
+    public void saveAppointments(Collection<Appointment> appointments) {
+        appointmentJournal.rewriteSnapshot(() -> saveSnapshot(APPOINTMENTS_FILE, appointments, Appointment::toFileString, BinarySnapshot.APPOINTMENTS));
+    }
+    public List<Appointment> loadAppointments() {
+        return timedLoad(APPOINTMENTS_FILE, () ->
+                appointmentJournal.replay(loadSnapshot(APPOINTMENTS_FILE, Appointment::fromFileString, BinarySnapshot.APPOINTMENTS)));
+    }
+
+    // Reports how long each data file took to load, so slow startups can be traced to a file.
+    private <T> List<T> timedLoad(String filePath, Supplier<List<T>> loader) {
+        long start = System.nanoTime();
+        List<T> dataList = loader.get();
+        recordTime("load", filePath, start);
+        System.out.println("INFO: Loaded " + dataList.size() + " records from " + filePath + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return dataList;
+    }
+
+    // Latency per operation and file, e.g. "fileManager.load.patients.txt" (only with metrics enabled).
+    private static void recordTime(String operation, String filePath, long start) {
+        if (Metrics.ENABLED) {
+            Metrics.record("fileManager." + operation + "." + Paths.get(filePath).getFileName(), start);
+        }
+    }
+
+    // Persists a single created or changed appointment: one journal record in journal mode, a full rewrite otherwise.
+    // The full list is only requested when journal mode is off.
+    public void saveAppointmentChange(Appointment changed, Supplier<? extends Collection<Appointment>> appointments) {
+        if (JOURNAL_ENABLED) {
+            long start = Metrics.start();
+            appointmentJournal.append(changed);
+            recordTime("append", APPOINTMENTS_JOURNAL_FILE, start);
+        } else {
+            saveAppointments(appointments.get());
+        }
+    }
+
+    // Batch variant: all changed appointments go out in one journal write (or one full rewrite).
+    public void saveAppointmentChanges(Collection<Appointment> changed, Supplier<? extends Collection<Appointment>> appointments) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        if (JOURNAL_ENABLED) {
+            long start = Metrics.start();
+            appointmentJournal.append(changed);
+            recordTime("append", APPOINTMENTS_JOURNAL_FILE, start);
+        } else {
+            saveAppointments(appointments.get());
+        }
+    }
+    // --- Streaming reads ---
+    // Lazy, constant-memory alternatives to the load methods for reports and one-off lookups. Lines failing the
+    // filter are skipped before they are parsed. Close the stream (try-with-resources) to release the file.
+    public Stream<Patient> streamPatients(RecordFilter filter) { return streamData(PATIENTS_FILE, filter, Patient::fromFileString); }
+    public Stream<Doctor> streamDoctors(RecordFilter filter) { return streamData(DOCTORS_FILE, filter, Doctor::fromFileString); }
+
+    // Reflects journaled changes too: snapshot lines are swapped for their newer journal records, and appointments
+    // only present in the journal follow at the end. Memory beyond the current line is bounded by the journal size.
+    public Stream<Appointment> streamAppointments(RecordFilter filter) {
+        AppointmentJournal.SnapshotView view;
+        try {
+            view = appointmentJournal.openSnapshotView();
+        } catch (IOException e) {
+            System.err.println("Error reading from file " + APPOINTMENTS_FILE + ": " + e.getMessage());
+            return Stream.empty();
+        }
+        Map<String, String> overlay = view.journalOverlay;
+        Set<String> replaced = new HashSet<>();
+        Stream<String> snapshotLines = view.snapshotReader.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .map(line -> {
+                    String newer = overlay.isEmpty() ? null : overlay.get(AppointmentJournal.recordId(line));
+                    if (newer == null) return line;
+                    replaced.add(AppointmentJournal.recordId(line));
+                    return newer;
+                });
+        Stream<String> journalOnlyLines = overlay.entrySet().stream() // Filtered lazily, after the snapshot is consumed
+                .filter(entry -> !replaced.contains(entry.getKey()))
+                .map(Map.Entry::getValue);
+        return Stream.concat(snapshotLines, journalOnlyLines)
+                .filter(filter)
+                .map(Appointment::fromFileString)
+                .filter(Objects::nonNull)
+                .onClose(() -> closeQuietly(view.snapshotReader, APPOINTMENTS_FILE));
+    }
+
+    private <T> Stream<T> streamData(String filePath, RecordFilter filter, java.util.function.Function<String, T> fromStringFunction) {
+        BufferedReader reader;
+        try {
+            reader = openText(Paths.get(filePath));
+        } catch (IOException e) {
+            System.err.println("Error reading from file " + filePath + ": " + e.getMessage());
+            return Stream.empty();
+        }
+        return reader.lines()
+                .filter(line -> !line.trim().isEmpty())
+                .filter(filter)
+                .map(fromStringFunction)
+                .filter(Objects::nonNull)
+                .onClose(() -> closeQuietly(reader, filePath));
+    }
+
+    private static void closeQuietly(Closeable closeable, String filePath) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            System.err.println("Error closing file " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    public void saveUsers(Collection<User> users) { saveSnapshot(USERS_FILE, users, User::toFileString, BinarySnapshot.USERS); }
+    public List<User> loadUsers() {
+        List<User> users = timedLoad(USERS_FILE, () -> loadSnapshot(USERS_FILE, User::fromFileString, BinarySnapshot.USERS));
+        // Older users.txt files hold plain-text passwords: hash them once and rewrite the file.
+        boolean upgraded = false;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (!PasswordHasher.isHashed(user.getPasswordHash())) {
+                users.set(i, new User(user.getUsername(), PasswordHasher.hash(user.getPasswordHash()), user.getRole(), user.getEntityId()));
+                upgraded = true;
+            }
+        }
+        if (upgraded) {
+            saveUsers(users);
+            System.out.println("INFO: Upgraded plain-text passwords in " + USERS_FILE + " to salted hashes.");
+        }
+        return users;
+    }
 
     public void logActivity(String activity) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ACTIVITY_LOG_FILE, true))) { // true for append mode
+        AsyncActivityLogWriter async = asyncLogWriter;
+        if (async != null) {
+            async.submit(activity);
+            return;
+        }
+        ActivityLogSegments segments = activityLog;
+        if (segments != null) {
+            segments.append(System.currentTimeMillis(), activity);
+            segments.flush();
+            return;
+        }
+        // Only reached if the segmented log could not be set up
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(ACTIVITY_LOG_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
             writer.write(timestamp + " - " + activity);
             writer.newLine();
@@ -119,4 +429,43 @@ public class FileManager {
             System.err.println("Error writing to activity log: " + e.getMessage());
         }
     }
+
+    // Structured audit trail (com.hospital.audit.AuditStore), kept next to the activity log it complements.
+    public Path getAuditLogPath() {
+        return Paths.get(AUDIT_LOG_FILE);
+    }
+
+    public Path getDataDirectory() {
+        return Paths.get(DATA_DIR);
+    }
+
+    // Activity log retention limits (0 = keep everything); the audit log is trimmed to the same ones.
+    public long getLogRetentionMillis() {
+        return LOG_RETENTION_MILLIS;
+    }
+
+    public long getLogRetentionBytes() {
+        return LOG_RETENTION_BYTES;
+    }
+
+    // Drains the async activity log writer, if enabled, and closes the segmented log. The async writer also drains
+    // from a shutdown hook. The closed log stays in place: anything logged afterwards is appended to the active
+    // segment by reopening it for each line.
+    public void flushActivityLog() {
+        if (asyncLogWriter != null) {
+            asyncLogWriter.close();
+            asyncLogWriter = null;
+        }
+        if (activityLog != null) {
+            activityLog.close(!"NEVER".equalsIgnoreCase(System.getProperty("hospital.log.fsync", "NEVER")));
+        }
+    }
+
+    // Closes the active activity log segment now, whatever its size and age, and queues it for compression.
+    public void rotateActivityLog() {
+        ActivityLogSegments segments = activityLog;
+        if (segments != null) {
+            segments.rotate();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.hospital.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk CSV import: the created entities in file order plus one error per rejected row.
+public class ImportReport<T> {
+    private final String source;
+    private final List<T> imported = new ArrayList<>();
+    private final List<RowError> errors = new ArrayList<>();
+    private int rowsRead;
+
+    public ImportReport(String source) {
+        this.source = source;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void addImported(T entity) {
+        imported.add(entity);
+    }
+
+    void addError(int lineNumber, String message) {
+        errors.add(new RowError(lineNumber, message));
+    }
+
+    public String getSource() { return source; }
+    public int getRowsRead() { return rowsRead; }
+    public List<T> getImported() { return Collections.unmodifiableList(imported); }
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    @Override
+    public String toString() {
+        return "Import of " + source + ": " + rowsRead + " rows read, " + imported.size() + " imported, " + errors.size() + " rejected";
+    }
+
+    public static class RowError {
+        private final int lineNumber; // 0 when the whole file could not be read
+        private final String message;
+
+        RowError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public int getLineNumber() { return lineNumber; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return (lineNumber > 0 ? "Line " + lineNumber : "File") + ": " + message;
+        }
+    }
+}
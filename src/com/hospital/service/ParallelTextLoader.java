@@ -0,0 +1,99 @@
+package com.hospital.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+// Parses a large line-oriented data file in parallel with fork/join.
+// The memory-mapped file is split into byte ranges; a line belongs to the range its first byte falls in,
+// so each range skips a partial first line and finishes its last one past the range end.
+// Sub-results are concatenated in range order, so the result keeps file order.
+class ParallelTextLoader {
+    private static final int MIN_RANGE_BYTES = 1 << 20;
+
+    private ParallelTextLoader() {
+    }
+
+    static <T> List<T> load(Path file, Function<String, T> parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map in one piece: " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            int rangeBytes = (int) Math.max(MIN_RANGE_BYTES, size / (pool.getParallelism() * 4L));
+            return pool.invoke(new ParseRange<>(mapped, 0, (int) size, rangeBytes, parser));
+        }
+    }
+
+    private static final class ParseRange<T> extends RecursiveTask<List<T>> {
+        private static final long serialVersionUID = 1L; // Never serialized; ForkJoinTask is Serializable
+        private final ByteBuffer file;
+        private final int start;
+        private final int end;
+        private final int rangeBytes;
+        private final Function<String, T> parser;
+
+        ParseRange(ByteBuffer file, int start, int end, int rangeBytes, Function<String, T> parser) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.rangeBytes = rangeBytes;
+            this.parser = parser;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (end - start > rangeBytes) {
+                int middle = start + (end - start) / 2;
+                ParseRange<T> left = new ParseRange<>(file, start, middle, rangeBytes, parser);
+                ParseRange<T> right = new ParseRange<>(file, middle, end, rangeBytes, parser);
+                right.fork();
+                List<T> result = left.compute();
+                result.addAll(right.join());
+                return result;
+            }
+            return parseLines();
+        }
+
+        private List<T> parseLines() {
+            ByteBuffer view = file.duplicate(); // Own position; the mapping itself is shared read-only
+            int limit = view.limit();
+            int position = start;
+            if (start > 0 && view.get(start - 1) != '\n') {
+                while (position < limit && view.get(position) != '\n') position++; // Partial line: previous range owns it
+                position++;
+            }
+            List<T> items = new ArrayList<>();
+            byte[] line = new byte[256];
+            while (position < end && position < limit) {
+                int lineEnd = position;
+                while (lineEnd < limit && view.get(lineEnd) != '\n') lineEnd++;
+                int length = lineEnd - position;
+                if (length > 0 && view.get(lineEnd - 1) == '\r') length--;
+                if (length > line.length) line = new byte[Math.max(length, line.length * 2)];
+                view.position(position);
+                view.get(line, 0, length);
+                String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                if (!text.trim().isEmpty()) {
+                    T item = parser.apply(text);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+                position = lineEnd + 1;
+            }
+            return items;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hospital.service;
+
+import com.hospital.model.AppointmentStatus;
+import com.hospital.util.RecordFields;
+
+import java.util.function.Predicate;
+
+// Cheap predicate on a raw data-file line, evaluated before the line is parsed into an entity.
+// Field checks walk the comma-separated line in place (honouring escaped commas), without splitting it or allocating.
+public interface RecordFilter extends Predicate<String> {
+    // Field positions in appointments.txt: appointmentId,patientId,doctorId,dateTime,description,status
+    int APPOINTMENT_ID = 0;
+    int APPOINTMENT_PATIENT_ID = 1;
+    int APPOINTMENT_DOCTOR_ID = 2;
+    int APPOINTMENT_STATUS = 5;
+
+    static RecordFilter all() {
+        return line -> true;
+    }
+
+    static RecordFilter prefix(String prefix) {
+        return line -> line.startsWith(prefix);
+    }
+
+    // True when the field at the given position equals the value exactly.
+    static RecordFilter field(int index, String value) {
+        String escaped = RecordFields.escape(value); // Compared with the field as written, escapes included
+        return line -> RecordFields.fieldEquals(line, index, escaped);
+    }
+
+    static RecordFilter appointmentsForDoctor(String doctorId) {
+        return field(APPOINTMENT_DOCTOR_ID, doctorId);
+    }
+
+    static RecordFilter appointmentsForPatient(String patientId) {
+        return field(APPOINTMENT_PATIENT_ID, patientId);
+    }
+
+    static RecordFilter appointmentsWithStatus(AppointmentStatus status) {
+        return field(APPOINTMENT_STATUS, status.name());
+    }
+
+    default RecordFilter and(RecordFilter other) {
+        return line -> test(line) && other.test(line);
+    }
+
+    static boolean fieldEquals(String line, int index, String value) {
+        return RecordFields.fieldEquals(line, index, RecordFields.escape(value));
+    }
+}
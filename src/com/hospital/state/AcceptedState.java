@@ -4,20 +4,25 @@ import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentStatus;
 
 public class AcceptedState implements AppointmentState {
+    public static final AcceptedState INSTANCE = new AcceptedState();
+
+    private AcceptedState() {
+    }
+
     @Override
-    public void accept(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is already accepted.");
+    public TransitionResult accept(Appointment appointment, String doctorId) {
+        return TransitionResult.ALREADY_IN_STATE;
     }
 
     @Override
-    public void reject(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is already accepted. Cannot reject directly by doctor. Staff may cancel.");
+    public TransitionResult reject(Appointment appointment, String doctorId) {
+        return TransitionResult.ILLEGAL_TRANSITION; // Cannot reject directly by doctor. Staff may cancel.
     }
 
     @Override
-    public void cancel(Appointment appointment, String actorId) {
-        appointment.setCurrentState(new CancelledState());
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " CANCELLED by " + actorId + " after acceptance.");
+    public TransitionResult cancel(Appointment appointment, String actorId) {
+        appointment.setCurrentState(CancelledState.INSTANCE);
+        return TransitionResult.APPLIED;
     }
 
     @Override
@@ -3,9 +3,28 @@ package com.hospital.state;
 import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentStatus;
 
+// States hold no per-appointment data, so each one is a shared singleton (see forStatus).
 public interface AppointmentState {
-    void accept(Appointment appointment, String actorId);
-    void reject(Appointment appointment, String actorId);
-    void cancel(Appointment appointment, String actorId);
+    TransitionResult accept(Appointment appointment, String actorId);
+    TransitionResult reject(Appointment appointment, String actorId);
+    TransitionResult cancel(Appointment appointment, String actorId);
     AppointmentStatus getStatus();
+
+    static AppointmentState forStatus(AppointmentStatus status) {
+        if (status == null) { // Should not happen with valid data
+            return PendingApprovalState.INSTANCE;
+        }
+        switch (status) {
+            case PENDING_APPROVAL:
+                return PendingApprovalState.INSTANCE;
+            case ACCEPTED:
+                return AcceptedState.INSTANCE;
+            case REJECTED:
+                return RejectedState.INSTANCE;
+            case CANCELLED_BY_STAFF:
+            // case COMPLETED: // If you add a CompletedState
+            default:
+                return CancelledState.INSTANCE;
+        }
+    }
 }
\ No newline at end of file
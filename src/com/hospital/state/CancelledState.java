@@ -4,19 +4,24 @@ import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentStatus;
 
 public class CancelledState implements AppointmentState {
+    public static final CancelledState INSTANCE = new CancelledState();
+
+    private CancelledState() {
+    }
+
     @Override
-    public void accept(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is cancelled. Cannot accept.");
+    public TransitionResult accept(Appointment appointment, String doctorId) {
+        return TransitionResult.ILLEGAL_TRANSITION;
     }
 
     @Override
-    public void reject(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is cancelled. Cannot reject.");
+    public TransitionResult reject(Appointment appointment, String doctorId) {
+        return TransitionResult.ILLEGAL_TRANSITION;
     }
 
     @Override
-    public void cancel(Appointment appointment, String actorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is already cancelled.");
+    public TransitionResult cancel(Appointment appointment, String actorId) {
+        return TransitionResult.ALREADY_IN_STATE;
     }
 
     @Override
@@ -4,30 +4,33 @@ import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentStatus;
 
 public class PendingApprovalState implements AppointmentState {
+    public static final PendingApprovalState INSTANCE = new PendingApprovalState();
+
+    private PendingApprovalState() {
+    }
+
     @Override
-    public void accept(Appointment appointment, String doctorId) {
-        if (appointment.getDoctorId().equals(doctorId)) {
-            appointment.setCurrentState(new AcceptedState());
-            System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " ACCEPTED by Dr. " + doctorId);
-        } else {
-            System.err.println("Error: Doctor " + doctorId + " not authorized to accept appointment " + appointment.getAppointmentId() + " (Assigned to Dr. " + appointment.getDoctorId() + ")");
+    public TransitionResult accept(Appointment appointment, String doctorId) {
+        if (!appointment.getDoctorId().equals(doctorId)) {
+            return TransitionResult.NOT_ASSIGNED_TO_DOCTOR;
         }
+        appointment.setCurrentState(AcceptedState.INSTANCE);
+        return TransitionResult.APPLIED;
     }
 
     @Override
-    public void reject(Appointment appointment, String doctorId) {
-         if (appointment.getDoctorId().equals(doctorId)) {
-            appointment.setCurrentState(new RejectedState());
-            System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " REJECTED by Dr. " + doctorId);
-        } else {
-            System.err.println("Error: Doctor " + doctorId + " not authorized to reject appointment " + appointment.getAppointmentId() + " (Assigned to Dr. " + appointment.getDoctorId() + ")");
+    public TransitionResult reject(Appointment appointment, String doctorId) {
+        if (!appointment.getDoctorId().equals(doctorId)) {
+            return TransitionResult.NOT_ASSIGNED_TO_DOCTOR;
         }
+        appointment.setCurrentState(RejectedState.INSTANCE);
+        return TransitionResult.APPLIED;
     }
 
     @Override
-    public void cancel(Appointment appointment, String actorId) {
-        appointment.setCurrentState(new CancelledState());
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " CANCELLED by " + actorId + " while pending.");
+    public TransitionResult cancel(Appointment appointment, String actorId) {
+        appointment.setCurrentState(CancelledState.INSTANCE);
+        return TransitionResult.APPLIED;
     }
 
     @Override
@@ -4,19 +4,24 @@ import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentStatus;
 
 public class RejectedState implements AppointmentState {
+    public static final RejectedState INSTANCE = new RejectedState();
+
+    private RejectedState() {
+    }
+
     @Override
-    public void accept(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " was rejected. Cannot accept now.");
+    public TransitionResult accept(Appointment appointment, String doctorId) {
+        return TransitionResult.ILLEGAL_TRANSITION;
     }
 
     @Override
-    public void reject(Appointment appointment, String doctorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is already rejected.");
+    public TransitionResult reject(Appointment appointment, String doctorId) {
+        return TransitionResult.ALREADY_IN_STATE;
     }
 
     @Override
-    public void cancel(Appointment appointment, String actorId) {
-        System.out.println("INFO: Appointment " + appointment.getAppointmentId() + " is rejected. No further cancellation action usually taken.");
+    public TransitionResult cancel(Appointment appointment, String actorId) {
+        return TransitionResult.ILLEGAL_TRANSITION; // No further cancellation action usually taken
     }
 
     @Override
@@ -0,0 +1,14 @@
+package com.hospital.state;
+
+// Outcome of asking an appointment's state to accept, reject or cancel.
+// Returned as a constant so callers decide how (and whether) to report it; nothing is printed or formatted here.
+public enum TransitionResult {
+    APPLIED,
+    NOT_ASSIGNED_TO_DOCTOR, // Accept/reject by a doctor the appointment is not assigned to
+    ALREADY_IN_STATE,       // e.g. accepting an accepted appointment
+    ILLEGAL_TRANSITION;     // e.g. accepting a rejected or cancelled appointment
+
+    public boolean isApplied() {
+        return this == APPLIED;
+    }
+}
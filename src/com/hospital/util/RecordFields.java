@@ -0,0 +1,165 @@
+package com.hospital.util;
+
+// Comma-separated record lines of the data files, parsed in a single pass without regular expressions.
+// Values are escaped so any text survives a round trip: a backslash escapes ',' and '\', and "\n" / "\r"
+// stand for line breaks (so a record always stays on one line). Fields without a backslash are plain substrings.
+public final class RecordFields {
+    private RecordFields() {
+    }
+
+    // The unescaped fields of a line, or null when it does not have exactly expectedFields fields.
+    public static String[] split(String line, int expectedFields) {
+        if (line.indexOf('\\') >= 0) {
+            return splitEscaped(line, expectedFields);
+        }
+        // Common case, no escapes: every field is a plain substring between two commas
+        String[] fields = new String[expectedFields];
+        int start = 0;
+        for (int count = 0; count < expectedFields - 1; count++) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                return null;
+            }
+            fields[count] = line.substring(start, end);
+            start = end + 1;
+        }
+        if (line.indexOf(',', start) >= 0) {
+            return null;
+        }
+        fields[expectedFields - 1] = line.substring(start);
+        return fields;
+    }
+
+    private static String[] splitEscaped(String line, int expectedFields) {
+        String[] fields = new String[expectedFields];
+        int count = 0;
+        int start = 0;
+        boolean escaped = false;
+        int length = line.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? line.charAt(i) : ',';
+            if (c == '\\' && i + 1 < length) {
+                escaped = true;
+                i++; // Skip the escaped character
+            } else if (c == ',') {
+                if (count == expectedFields) {
+                    return null;
+                }
+                fields[count++] = escaped ? unescape(line, start, i) : line.substring(start, i);
+                start = i + 1;
+                escaped = false;
+            }
+        }
+        return count == expectedFields ? fields : null;
+    }
+
+    // The unescaped field at the given position, or null when the line has fewer fields.
+    public static String field(String line, int index) {
+        int start = fieldStart(line, index);
+        if (start < 0) {
+            return null;
+        }
+        int end = fieldEnd(line, start);
+        int backslash = line.indexOf('\\', start);
+        return backslash < 0 || backslash >= end ? line.substring(start, end) : unescape(line, start, end);
+    }
+
+    // Compares the field at the given position with an already escaped value, in place and without allocating.
+    public static boolean fieldEquals(String line, int index, String escapedValue) {
+        int start = fieldStart(line, index);
+        if (start < 0) {
+            return false; // Fewer fields than expected
+        }
+        int end = fieldEnd(line, start);
+        return end - start == escapedValue.length() && line.startsWith(escapedValue, start);
+    }
+
+    public static String join(String... values) {
+        StringBuilder line = new StringBuilder(16 * values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) line.append(',');
+            appendEscaped(line, values[i]);
+        }
+        return line.toString();
+    }
+
+    public static String escape(String value) {
+        if (!needsEscaping(value)) {
+            return String.valueOf(value);
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        appendEscaped(escaped, value);
+        return escaped.toString();
+    }
+
+    private static void appendEscaped(StringBuilder line, String value) {
+        if (!needsEscaping(value)) {
+            line.append(value); // null is written as "null", as String.join did
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case ',': line.append("\\,"); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                default: line.append(c);
+            }
+        }
+    }
+
+    private static boolean needsEscaping(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '\\' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String unescape(String line, int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char next = line.charAt(++i);
+                value.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    // Index of the first character of field `index`, or -1 when the line has fewer fields.
+    private static int fieldStart(String line, int index) {
+        int start = 0;
+        for (int field = 0; field < index; field++) {
+            int end = fieldEnd(line, start);
+            if (end == line.length()) {
+                return -1;
+            }
+            start = end + 1;
+        }
+        return start;
+    }
+
+    // Index of the separator ending the field that starts at `start` (or the line length).
+    private static int fieldEnd(String line, int start) {
+        int length = line.length();
+        for (int i = start; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ',') {
+                return i;
+            }
+        }
+        return length;
+    }
+}
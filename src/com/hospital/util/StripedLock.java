@@ -0,0 +1,46 @@
+package com.hospital.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Fixed pool of reentrant locks selected by key hash, e.g. one stripe per doctor ID.
+// Work on keys that land in different stripes never contends; memory stays constant however many keys exist.
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+
+    public StripedLock(int requestedStripes) {
+        int count = Integer.highestOneBit(Math.max(2, requestedStripes - 1)) << 1; // Power of two for masking
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forKey(Object key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    // Distinct stripes covering all keys, in ascending stripe order. Always locking several stripes
+    // in this order (and unlocking in reverse) means two multi-key operations can never deadlock.
+    public List<Lock> forKeys(Collection<?> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Object key : keys) {
+            indexes.add(stripeIndex(key));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    public int stripeIndex(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16); // Spread high bits, as HashMap does
+        return h & (stripes.length - 1);
+    }
+}
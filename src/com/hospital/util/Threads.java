@@ -0,0 +1,58 @@
+package com.hospital.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Virtual threads where the runtime has them (Java 21+), daemon platform threads otherwise.
+// Looked up reflectively so the project still compiles and runs on older JDKs.
+public final class Threads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method VIRTUAL_EXECUTOR = findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+
+    private Threads() {
+    }
+
+    public static Thread start(String name, Runnable task) {
+        if (OF_VIRTUAL != null) {
+            try {
+                Object builder = OF_VIRTUAL.invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class).invoke(builder, name);
+                return (Thread) builderType.getMethod("start", Runnable.class).invoke(builder, task);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to a platform thread
+            }
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // One new thread per submitted task: virtual threads when available, else a cached daemon pool.
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to a platform pool
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
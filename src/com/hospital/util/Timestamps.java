@@ -0,0 +1,69 @@
+package com.hospital.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Date/time values of the data files, which are always written as ISO local date-times
+// (yyyy-MM-ddTHH:mm, optionally with :ss and a 1-9 digit fraction). The fixed layout is decoded by position,
+// which is several times faster than going through DateTimeFormatter for every record.
+// Anything outside that layout (e.g. years beyond 9999) falls back to LocalDateTime.parse.
+public final class Timestamps {
+    private Timestamps() {
+    }
+
+    // Throws DateTimeParseException for invalid text, like LocalDateTime.parse.
+    public static LocalDateTime parse(CharSequence text) {
+        int length = text.length();
+        if (length != 16 && length != 19 && (length < 21 || length > 29)) {
+            return LocalDateTime.parse(text);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = 0;
+        int nano = 0;
+        boolean layout = year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0
+                && text.charAt(4) == '-' && text.charAt(7) == '-' && text.charAt(10) == 'T' && text.charAt(13) == ':';
+        if (layout && length >= 19) {
+            second = digits(text, 17, 2);
+            layout = second >= 0 && text.charAt(16) == ':';
+            if (layout && length > 19) {
+                int fraction = digits(text, 20, length - 20);
+                layout = fraction >= 0 && text.charAt(19) == '.';
+                for (int i = length - 20; i < 9; i++) {
+                    fraction *= 10;
+                }
+                nano = fraction;
+            }
+        }
+        if (!layout) {
+            return LocalDateTime.parse(text); // Not the fixed layout; let the formatter decide (and report)
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException("Text '" + text + "' could not be parsed: " + e.getMessage(), text, 0, e);
+        }
+    }
+
+    // Same text as LocalDateTime.toString(), which parse() reads back.
+    public static String format(LocalDateTime dateTime) {
+        return dateTime.toString();
+    }
+
+    // Value of `count` decimal digits starting at `from`, or -1 if any of them is not a digit.
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}